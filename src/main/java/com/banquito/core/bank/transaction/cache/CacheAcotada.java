@@ -0,0 +1,189 @@
+package com.banquito.core.bank.transaction.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Caché en memoria acotada por cantidad de entradas (LRU) y por tiempo de vida (TTL).
+// Se divide en segmentos independientes, cada uno un LinkedHashMap en orden de acceso
+// protegido por su propio monitor, para que los hilos de los listeners no compitan por
+// un único lock. Cada entrada puede tener su propio TTL
+public class CacheAcotada<K, V> {
+
+    private final Segmento<K, V>[] segmentos;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder expulsiones = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+
+    public CacheAcotada(int capacidad, Duration ttl, int cantidadSegmentos) {
+        this(capacidad, ttl, cantidadSegmentos, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    CacheAcotada(int capacidad, Duration ttl, int cantidadSegmentos, LongSupplier reloj) {
+        if (capacidad <= 0 || cantidadSegmentos <= 0) {
+            throw new IllegalArgumentException("Capacidad y segmentos deben ser mayores que cero");
+        }
+        int cantidad = Math.min(cantidadSegmentos, capacidad);
+        int capacidadSegmento = (capacidad + cantidad - 1) / cantidad;
+        this.segmentos = new Segmento[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            segmentos[i] = new Segmento<>(capacidadSegmento, expulsiones);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.reloj = reloj;
+    }
+
+    public V obtener(K clave) {
+        Segmento<K, V> segmento = segmento(clave);
+        long ahora = reloj.getAsLong();
+        synchronized (segmento) {
+            Entrada<V> entrada = segmento.get(clave);
+            if (entrada == null) {
+                fallos.increment();
+                return null;
+            }
+            if (entrada.vencimiento - ahora <= 0) {
+                segmento.remove(clave);
+                expiradas.increment();
+                fallos.increment();
+                return null;
+            }
+            aciertos.increment();
+            return entrada.valor;
+        }
+    }
+
+    public void poner(K clave, V valor) {
+        poner(clave, valor, ttlNanos);
+    }
+
+    public void poner(K clave, V valor, Duration ttl) {
+        poner(clave, valor, ttl.toNanos());
+    }
+
+    // Devuelve el valor vigente si la clave ya existía (sin reemplazarlo) o null si se insertó
+    public V ponerSiAusente(K clave, V valor) {
+        Segmento<K, V> segmento = segmento(clave);
+        long ahora = reloj.getAsLong();
+        synchronized (segmento) {
+            Entrada<V> actual = segmento.get(clave);
+            if (actual != null && actual.vencimiento - ahora > 0) {
+                aciertos.increment();
+                return actual.valor;
+            }
+            fallos.increment();
+            segmento.put(clave, new Entrada<>(valor, ahora + ttlNanos));
+            return null;
+        }
+    }
+
+    public void invalidar(K clave) {
+        Segmento<K, V> segmento = segmento(clave);
+        synchronized (segmento) {
+            segmento.remove(clave);
+        }
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+
+    public long aciertos() {
+        return aciertos.sum();
+    }
+
+    public long fallos() {
+        return fallos.sum();
+    }
+
+    public long expulsiones() {
+        return expulsiones.sum();
+    }
+
+    public long expiradas() {
+        return expiradas.sum();
+    }
+
+    public double tasaAciertos() {
+        long aciertosActuales = aciertos.sum();
+        long total = aciertosActuales + fallos.sum();
+        return total == 0 ? 0.0 : (double) aciertosActuales / total;
+    }
+
+    // Publica tamaño, tasa de aciertos, aciertos, fallos, expulsiones (LRU) y expiradas (TTL) con la etiqueta cache=nombre
+    public CacheAcotada<K, V> registrarMetricas(MeterRegistry meterRegistry, String nombre) {
+        Gauge.builder("transacciones.cache.tamano", this, CacheAcotada::tamano)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        Gauge.builder("transacciones.cache.tasa_aciertos", this, CacheAcotada::tasaAciertos)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        FunctionCounter.builder("transacciones.cache.aciertos", this, CacheAcotada::aciertos)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        FunctionCounter.builder("transacciones.cache.fallos", this, CacheAcotada::fallos)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        FunctionCounter.builder("transacciones.cache.expulsiones", this, CacheAcotada::expulsiones)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        FunctionCounter.builder("transacciones.cache.expiradas", this, CacheAcotada::expiradas)
+                .tag("cache", nombre)
+                .register(meterRegistry);
+        return this;
+    }
+
+    private void poner(K clave, V valor, long ttl) {
+        Segmento<K, V> segmento = segmento(clave);
+        Entrada<V> entrada = new Entrada<>(valor, reloj.getAsLong() + ttl);
+        synchronized (segmento) {
+            segmento.put(clave, entrada);
+        }
+    }
+
+    private Segmento<K, V> segmento(K clave) {
+        int hash = clave.hashCode();
+        return segmentos[Math.floorMod(hash ^ (hash >>> 16), segmentos.length)];
+    }
+
+    private record Entrada<V>(V valor, long vencimiento) {
+    }
+
+    private static final class Segmento<K, V> extends LinkedHashMap<K, Entrada<V>> {
+
+        private final int capacidad;
+        private final LongAdder expulsiones;
+
+        Segmento(int capacidad, LongAdder expulsiones) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
+            this.expulsiones = expulsiones;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+            if (size() > capacidad) {
+                expulsiones.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.banquito.core.bank.transaction.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.apache.activemq.ActiveMQConnection;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
+import org.apache.activemq.management.JMSStatsImpl;
+import org.apache.activemq.transport.Transport;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
 import org.springframework.jms.support.converter.MessageType;
 
@@ -25,29 +38,97 @@ public class ActiveMQConfig {
     @Value("${spring.activemq.password:admin}")
     private String password;
 
+    @Value("${transacciones.listener.hilos-virtuales:false}")
+    private boolean hilosVirtuales;
+
+    @Value("${transacciones.planificador.habilitado:false}")
+    private boolean planificador;
+
+    @Value("${transacciones.jms.sesiones-cache:10}")
+    private int sesionesCache;
+
+    @Value("${transacciones.jms.prefetch-cola:50}")
+    private int prefetchCola;
+
+    @Value("${transacciones.jms.acuse-optimizado:false}")
+    private boolean acuseOptimizado;
+
+    @Value("${transacciones.jms.despacho-asincrono:true}")
+    private boolean despachoAsincrono;
+
+    @Value("${transacciones.jms.envio-asincrono:false}")
+    private boolean envioAsincrono;
+
+    // Fábrica física: cada createConnection abre un socket TLS con el broker. La usan
+    // directamente los contenedores de @JmsListener (que mantienen su propia conexión,
+    // sesiones y consumidores con CACHE_CONSUMER), el consumo por lotes y la sonda del broker
+    // de SaludService, que necesita abrir una conexión real
     @Bean
-    public ActiveMQConnectionFactory connectionFactory() {
-        ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory();
+    public ActiveMQConnectionFactory activeMQConnectionFactory(MeterRegistry meterRegistry) {
+        ActiveMQConnectionFactory connectionFactory = new FabricaActiveMQMedida(meterRegistry);
         connectionFactory.setBrokerURL(brokerUrl);
         connectionFactory.setUserName(user);
         connectionFactory.setPassword(password);
+        // El planificador ordena por JMSPriority; el cliente también debe respetarla al
+        // despachar los mensajes ya recibidos (prefetch) a cada consumidor
+        connectionFactory.setMessagePrioritySupported(planificador);
+        // Con el prefetch por defecto (1000) el primer consumidor acapara la cola y los que
+        // agrega el escalado dinámico quedan ociosos
+        ActiveMQPrefetchPolicy prefetch = new ActiveMQPrefetchPolicy();
+        prefetch.setQueuePrefetch(prefetchCola);
+        connectionFactory.setPrefetchPolicy(prefetch);
+        // Acuses agrupados: menos viajes al broker, pero tras una caída se reentregan los
+        // mensajes aún no acusados (los cubre la clave de idempotencia)
+        connectionFactory.setOptimizeAcknowledge(acuseOptimizado);
+        connectionFactory.setDispatchAsync(despachoAsincrono);
+        connectionFactory.setUseAsyncSend(envioAsincrono);
+        return connectionFactory;
+    }
+
+    // Fábrica para productores (JmsTemplate): una sola conexión compartida y sesiones
+    // y productores reutilizados, en lugar de conexión + sesión + productor por envío
+    @Bean
+    @Primary
+    public CachingConnectionFactory connectionFactory(ActiveMQConnectionFactory activeMQConnectionFactory,
+            MeterRegistry meterRegistry) {
+        CachingConnectionFactory connectionFactory = new CacheSesionesMedida(activeMQConnectionFactory, meterRegistry);
+        connectionFactory.setSessionCacheSize(sesionesCache);
+        connectionFactory.setCacheProducers(true);
+        connectionFactory.setCacheConsumers(false);
+        Gauge.builder("transacciones.jms.sesiones.cache_maxima", connectionFactory,
+                        CachingConnectionFactory::getSessionCacheSize)
+                .description("Sesiones JMS que la caché de productores conserva por modo de acuse")
+                .register(meterRegistry);
         return connectionFactory;
     }
 
     @Bean
-    public JmsTemplate jmsTemplate() {
+    public JmsTemplate jmsTemplate(CachingConnectionFactory connectionFactory,
+            MappingJackson2MessageConverter jacksonJmsMessageConverter) {
         JmsTemplate template = new JmsTemplate();
-        template.setConnectionFactory(connectionFactory());
-        template.setMessageConverter(jacksonJmsMessageConverter());
+        template.setConnectionFactory(connectionFactory);
+        template.setMessageConverter(jacksonJmsMessageConverter);
         return template;
     }
 
     @Bean
-    public DefaultJmsListenerContainerFactory jmsListenerContainerFactory() {
+    public DefaultJmsListenerContainerFactory jmsListenerContainerFactory(
+            ActiveMQConnectionFactory activeMQConnectionFactory,
+            MappingJackson2MessageConverter jacksonJmsMessageConverter) {
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-        factory.setConnectionFactory(connectionFactory());
-        factory.setMessageConverter(jacksonJmsMessageConverter());
+        factory.setConnectionFactory(activeMQConnectionFactory);
+        factory.setMessageConverter(jacksonJmsMessageConverter);
+        // Conexión compartida por contenedor y sesión + consumidor fijos por hilo consumidor;
+        // no se usa la CachingConnectionFactory porque el escalado dinámico cierra consumidores
+        factory.setCacheLevel(DefaultMessageListenerContainer.CACHE_CONSUMER);
         factory.setConcurrency("1-10");
+        if (hilosVirtuales) {
+            // Cada consumidor corre en un hilo virtual: la espera por Hikari o por la red
+            // no ocupa un hilo de plataforma
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("jms-virtual-");
+            taskExecutor.setVirtualThreads(true);
+            factory.setTaskExecutor(taskExecutor);
+        }
         factory.setErrorHandler(t -> {
             System.err.println("Error en el listener JMS: " + t.getMessage());
             t.printStackTrace();
@@ -56,20 +137,72 @@ public class ActiveMQConfig {
     }
 
     @Bean
-    public MappingJackson2MessageConverter jacksonJmsMessageConverter() {
+    public MappingJackson2MessageConverter jacksonJmsMessageConverter(ObjectMapper objectMapper) {
         MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
         converter.setTargetType(MessageType.TEXT);
         // NO usar el _type para deserialización - usar solo el contenido JSON
         // converter.setTypeIdPropertyName("_type");
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-
-        // Configurar para ignorar propiedades desconocidas
-        objectMapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
+        // Mismo ObjectMapper de Spring Boot que usa LectorMensajesTransaccion (JavaTimeModule
+        // registrado e ignora propiedades desconocidas), así se comparte su caché de serializadores
         converter.setObjectMapper(objectMapper);
 
         return converter;
     }
+
+    // Cuenta las conexiones físicas al broker: si crece de forma sostenida, alguna ruta está
+    // abriendo conexiones por mensaje
+    private static final class FabricaActiveMQMedida extends ActiveMQConnectionFactory {
+
+        private final Counter conexionesCreadas;
+
+        private FabricaActiveMQMedida(MeterRegistry meterRegistry) {
+            this.conexionesCreadas = Counter.builder("transacciones.jms.conexiones.creadas")
+                    .description("Conexiones físicas abiertas con el broker")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        protected ActiveMQConnection createActiveMQConnection(Transport transport, JMSStatsImpl stats)
+                throws Exception {
+            ActiveMQConnection connection = super.createActiveMQConnection(transport, stats);
+            conexionesCreadas.increment();
+            return connection;
+        }
+    }
+
+    // Distingue las sesiones tomadas de la caché de las que se crearon en el broker
+    private static final class CacheSesionesMedida extends CachingConnectionFactory {
+
+        private final Counter sesionesReutilizadas;
+        private final Counter sesionesCreadas;
+        private final ThreadLocal<Boolean> sesionCreada = ThreadLocal.withInitial(() -> false);
+
+        private CacheSesionesMedida(ActiveMQConnectionFactory destino, MeterRegistry meterRegistry) {
+            super(destino);
+            this.sesionesReutilizadas = Counter.builder("transacciones.jms.sesiones")
+                    .description("Sesiones JMS entregadas por la caché de productores")
+                    .tag("resultado", "reutilizada")
+                    .register(meterRegistry);
+            this.sesionesCreadas = Counter.builder("transacciones.jms.sesiones")
+                    .description("Sesiones JMS entregadas por la caché de productores")
+                    .tag("resultado", "creada")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        protected Session getSession(Connection con, Integer mode) throws JMSException {
+            sesionCreada.set(false);
+            Session session = super.getSession(con, mode);
+            (sesionCreada.get() ? sesionesCreadas : sesionesReutilizadas).increment();
+            return session;
+        }
+
+        // getSession solo llega aquí cuando la caché no tiene una sesión libre
+        @Override
+        protected Session createSession(Connection con, Integer mode) throws JMSException {
+            sesionCreada.set(true);
+            return super.createSession(con, mode);
+        }
+    }
 }
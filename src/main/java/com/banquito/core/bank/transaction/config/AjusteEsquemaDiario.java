@@ -0,0 +1,97 @@
+package com.banquito.core.bank.transaction.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// Perfil por defecto (esquema de ddl-auto, sin Flyway): cambios en account.transacciones que
+// ddl-auto no sabe aplicar, sea porque update no toca una restricción existente o porque JPA no
+// declara índices parciales. Corre después de ddl-auto y antes de que arranquen los listeners
+// JMS. Solo PostgreSQL; con el diario particionado la tabla es de las migraciones de Flyway
+// (V2 y V5)
+@Component
+@Slf4j
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "transacciones.particionado.habilitado", havingValue = "false", matchIfMissing = true)
+public class AjusteEsquemaDiario {
+
+    // CHECK de tipo_transaccion que ddl-auto creó antes de TRANSFERENCIA; update nunca lo amplía
+    private static final String SQL_RESTRICCIONES_TIPO = """
+            SELECT c.conname
+              FROM pg_constraint c
+              JOIN pg_class t ON t.oid = c.conrelid
+              JOIN pg_namespace n ON n.oid = t.relnamespace
+             WHERE n.nspname = 'account' AND t.relname = 'transacciones' AND c.contype = 'c'
+               AND pg_get_constraintdef(c.oid) LIKE '%tipo_transaccion%'
+               AND pg_get_constraintdef(c.oid) NOT LIKE '%TRANSFERENCIA%'
+            """;
+
+    // Filas de escritura diferida aún no aplicadas: el índice solo contiene esas pocas filas
+    private static final String INDICE_SALDO_PENDIENTE = "idx_transacciones_saldo_pendiente";
+
+    // null si el índice no existe; false si quedó inválido por un CREATE CONCURRENTLY interrumpido
+    private static final String SQL_INDICE_VALIDO = """
+            SELECT i.indisvalid
+              FROM pg_index i
+              JOIN pg_class c ON c.oid = i.indexrelid
+              JOIN pg_namespace n ON n.oid = c.relnamespace
+             WHERE n.nspname = 'account' AND c.relname = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public AjusteEsquemaDiario(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    void ajustar() throws SQLException {
+        if (!esPostgres()) {
+            return;
+        }
+        // Se elimina en lugar de ampliarlo, igual que V2: el tipo ya lo restringe el enum
+        List<String> restricciones = jdbcTemplate.queryForList(SQL_RESTRICCIONES_TIPO, String.class);
+        for (String restriccion : restricciones) {
+            jdbcTemplate.execute("ALTER TABLE account.transacciones DROP CONSTRAINT \"" + restriccion + "\"");
+            log.info("MS2 EJECUTOR - Eliminada la restricción {} de tipo_transaccion (anterior a TRANSFERENCIA)",
+                    restriccion);
+        }
+        crearIndiceSaldoPendiente();
+    }
+
+    // CONCURRENTLY no bloquea las escrituras; la primera vez el arranque espera a que termine.
+    // Si otra instancia lo está creando a la vez, esta sigue sin él: solo afecta el rendimiento
+    private void crearIndiceSaldoPendiente() {
+        try {
+            List<Boolean> valido = jdbcTemplate.queryForList(SQL_INDICE_VALIDO, Boolean.class, INDICE_SALDO_PENDIENTE);
+            if (!valido.isEmpty() && valido.get(0)) {
+                return;
+            }
+            if (!valido.isEmpty()) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS account." + INDICE_SALDO_PENDIENTE);
+            }
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDICE_SALDO_PENDIENTE
+                    + " ON account.transacciones (numero_cuenta_origen) WHERE saldo_pendiente");
+            log.info("MS2 EJECUTOR - Creado el índice parcial {}", INDICE_SALDO_PENDIENTE);
+        } catch (DataAccessException e) {
+            log.warn("MS2 EJECUTOR - No se pudo crear el índice {}: {}", INDICE_SALDO_PENDIENTE, e.getMessage());
+        }
+    }
+
+    private boolean esPostgres() throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            return "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.banquito.core.bank.transaction.config;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+
+// Perfil "particionado": account.transacciones y sus índices pertenecen a las migraciones
+// de Flyway. ddl-auto no ve los índices de una tabla particionada e intentaría crearlos de
+// nuevo en cada arranque, así que esa tabla queda fuera del esquema que gestiona Hibernate
+public class DiarioParticionadoSchemaFilterProvider implements SchemaFilterProvider {
+
+    private static final SchemaFilter SIN_DIARIO = new SchemaFilter() {
+        @Override
+        public boolean includeNamespace(Namespace namespace) {
+            return true;
+        }
+
+        @Override
+        public boolean includeTable(Table table) {
+            return !"transacciones".equalsIgnoreCase(table.getName());
+        }
+
+        @Override
+        public boolean includeSequence(Sequence sequence) {
+            return true;
+        }
+    };
+
+    @Override
+    public SchemaFilter getCreateFilter() {
+        return SIN_DIARIO;
+    }
+
+    @Override
+    public SchemaFilter getDropFilter() {
+        return SIN_DIARIO;
+    }
+
+    @Override
+    public SchemaFilter getTruncatorFilter() {
+        return SIN_DIARIO;
+    }
+
+    @Override
+    public SchemaFilter getMigrateFilter() {
+        return SIN_DIARIO;
+    }
+
+    @Override
+    public SchemaFilter getValidateFilter() {
+        return SIN_DIARIO;
+    }
+}
@@ -0,0 +1,52 @@
+package com.banquito.core.bank.transaction.config;
+
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.id.IdTemporalGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Configuration
+@Slf4j
+public class GeneracionIdConfig {
+
+    // Cada instancia del servicio necesita su propio nodo; dos instancias con el mismo nodo
+    // pueden generar IDs repetidos. Sin transacciones.id.nodo se toma el ordinal del nombre de
+    // host solo si es <transacciones.id.statefulset>-<N>: un sufijo numérico cualquiera (p. ej.
+    // ip-10-0-1-23 en EC2) no identifica a la instancia. Si tampoco lo hay, con nodo-obligatorio
+    // (perfil prod) no arranca y en desarrollo usa 0
+    @Bean
+    public GeneradorIdTemporal generadorIdTransacciones(@Value("${transacciones.id.nodo:}") String nodo,
+            @Value("${transacciones.id.nodo-obligatorio:false}") boolean nodoObligatorio,
+            @Value("${transacciones.id.statefulset:}") String statefulSet,
+            @Value("${HOSTNAME:}") String host) {
+        if (!nodo.isBlank()) {
+            return new GeneradorIdTemporal(Integer.parseInt(nodo.trim()));
+        }
+        if (!statefulSet.isBlank()) {
+            Matcher ordinal = Pattern.compile(Pattern.quote(statefulSet.trim()) + "-(\\d{1,4})").matcher(host);
+            if (ordinal.matches() && Integer.parseInt(ordinal.group(1)) <= GeneradorIdTemporal.NODO_MAXIMO) {
+                int nodoHost = Integer.parseInt(ordinal.group(1));
+                log.info("MS2 EJECUTOR - Nodo del generador de IDs {} tomado del pod {}", nodoHost, host);
+                return new GeneradorIdTemporal(nodoHost);
+            }
+        }
+        if (nodoObligatorio) {
+            throw new IllegalStateException("transacciones.id.nodo no está configurado y el host '" + host
+                    + "' no es un pod de transacciones.id.statefulset; cada instancia necesita un nodo distinto (0-"
+                    + GeneradorIdTemporal.NODO_MAXIMO + ")");
+        }
+        log.warn("MS2 EJECUTOR - transacciones.id.nodo sin configurar, se usa 0: solo válido con una instancia");
+        return new GeneradorIdTemporal(0);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer generadorIdHibernate(GeneradorIdTemporal generadorIdTransacciones) {
+        return propiedades -> propiedades.put(IdTemporalGenerator.PROPIEDAD_GENERADOR, generadorIdTransacciones);
+    }
+}
@@ -0,0 +1,198 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ajusta en caliente el máximo de consumidores de cada @JmsListener con AIMD: si la latencia
+// media de commit del último intervalo supera el objetivo, la BD está saturada (bloqueos,
+// pool agotado) y el máximo se multiplica por factor-reduccion en todas las colas; si no, una
+// cola con atraso mayor que mensajes-por-consumidor por consumidor suma paso consumidores.
+// La profundidad se consulta al statisticsBrokerPlugin de ActiveMQ; sin el plugin solo actúa
+// la reducción por latencia
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.autoescalado.habilitado", havingValue = "true")
+public class AutoescaladoListeners {
+
+    private static final String PREFIJO_ESTADISTICAS = "ActiveMQ.Statistics.Destination.";
+
+    public enum Decision {
+        AUMENTAR,
+        REDUCIR,
+        MANTENER
+    }
+
+    private final JmsListenerEndpointRegistry registroListeners;
+    private final MeterRegistry meterRegistry;
+    private final JmsTemplate consultaEstadisticas;
+
+    @Value("${transacciones.autoescalado.minimo:2}")
+    private int minimo;
+
+    @Value("${transacciones.autoescalado.maximo:20}")
+    private int maximo;
+
+    @Value("${transacciones.autoescalado.paso:1}")
+    private int paso;
+
+    @Value("${transacciones.autoescalado.factor-reduccion:0.7}")
+    private double factorReduccion;
+
+    @Value("${transacciones.autoescalado.latencia-objetivo-ms:50}")
+    private double latenciaObjetivoMs;
+
+    @Value("${transacciones.autoescalado.mensajes-por-consumidor:10}")
+    private int mensajesPorConsumidor;
+
+    // La cola agrupada por cuenta tiene consumidores fijos: cerrarlos movería sus grupos
+    @Value("${colas.transacciones.cuentas:}")
+    private String colaCuentas;
+
+    private final List<DefaultMessageListenerContainer> contenedores = new ArrayList<>();
+    private final ConcurrentHashMap<String, AtomicLong> profundidades = new ConcurrentHashMap<>();
+    // Latencia media de commit del último intervalo, en microsegundos para el gauge
+    private final AtomicLong latenciaCommitMicros = new AtomicLong();
+    private long tiempoCommitAnterior;
+    private long commitsAnteriores;
+    private boolean estadisticasDisponibles = true;
+
+    public AutoescaladoListeners(JmsListenerEndpointRegistry registroListeners, ConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${transacciones.autoescalado.timeout-estadisticas-ms:500}") long timeoutEstadisticasMs) {
+        this.registroListeners = registroListeners;
+        this.meterRegistry = meterRegistry;
+        this.consultaEstadisticas = new JmsTemplate(connectionFactory);
+        this.consultaEstadisticas.setReceiveTimeout(timeoutEstadisticasMs);
+        // Si el broker no tiene el plugin, la consulta queda sin consumidor: que expire sola
+        this.consultaEstadisticas.setExplicitQosEnabled(true);
+        this.consultaEstadisticas.setDeliveryPersistent(false);
+        this.consultaEstadisticas.setTimeToLive(timeoutEstadisticasMs * 2);
+
+        Gauge.builder("transacciones.autoescalado.latencia_commit", latenciaCommitMicros, AtomicLong::get)
+                .description("Latencia media de commit observada en el último intervalo")
+                .baseUnit("microseconds")
+                .register(meterRegistry);
+    }
+
+    // Los contenedores de @JmsListener existen recién al terminar el arranque
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        for (MessageListenerContainer contenedor : registroListeners.getListenerContainers()) {
+            if (contenedor instanceof DefaultMessageListenerContainer dmlc
+                    && !colaCuentas.equals(dmlc.getDestinationName())) {
+                int inicial = Math.max(minimo, Math.min(maximo, dmlc.getMaxConcurrentConsumers()));
+                dmlc.setConcurrentConsumers(minimo);
+                dmlc.setMaxConcurrentConsumers(inicial);
+                contenedores.add(dmlc);
+            }
+        }
+        actualizarLatenciaCommit();
+        log.info("MS2 EJECUTOR - Autoescalado de listeners: {} colas, consumidores {}-{}, latencia objetivo {}ms",
+                contenedores.size(), minimo, maximo, latenciaObjetivoMs);
+    }
+
+    @Scheduled(fixedDelayString = "${transacciones.autoescalado.intervalo-ms:5000}",
+            initialDelayString = "${transacciones.autoescalado.intervalo-ms:5000}")
+    public void ajustar() {
+        double latenciaMs = actualizarLatenciaCommit();
+        boolean congestion = !Double.isNaN(latenciaMs) && latenciaMs > latenciaObjetivoMs;
+
+        for (DefaultMessageListenerContainer dmlc : contenedores) {
+            String cola = String.valueOf(dmlc.getDestinationName());
+            int actual = dmlc.getMaxConcurrentConsumers();
+            long profundidad = congestion ? -1 : profundidad(cola);
+
+            int nuevo = actual;
+            if (congestion) {
+                nuevo = Math.max(minimo, (int) Math.floor(actual * factorReduccion));
+            } else if (profundidad > (long) actual * mensajesPorConsumidor) {
+                nuevo = Math.min(maximo, actual + paso);
+            }
+
+            Decision decision = nuevo > actual ? Decision.AUMENTAR
+                    : nuevo < actual ? Decision.REDUCIR
+                    : Decision.MANTENER;
+            if (decision != Decision.MANTENER) {
+                dmlc.setMaxConcurrentConsumers(nuevo);
+                log.info("MS2 EJECUTOR - Autoescalado {} cola {}: {} -> {} consumidores (profundidad={}, latencia commit={}ms)",
+                        decision, cola, actual, nuevo, profundidad, String.format("%.2f", latenciaMs));
+            }
+            meterRegistry.counter("transacciones.autoescalado.decisiones", "cola", cola, "decision", decision.name())
+                    .increment();
+        }
+    }
+
+    // Media de transacciones.commit (todos los tipos) desde la última llamada; NaN si no hubo commits
+    private double actualizarLatenciaCommit() {
+        long tiempoTotal = 0;
+        long commits = 0;
+        for (Timer timer : meterRegistry.find("transacciones.commit").timers()) {
+            tiempoTotal += (long) timer.totalTime(TimeUnit.NANOSECONDS);
+            commits += timer.count();
+        }
+        long deltaCommits = commits - commitsAnteriores;
+        long deltaTiempo = tiempoTotal - tiempoCommitAnterior;
+        commitsAnteriores = commits;
+        tiempoCommitAnterior = tiempoTotal;
+        if (deltaCommits <= 0) {
+            latenciaCommitMicros.set(0);
+            return Double.NaN;
+        }
+        double mediaNanos = (double) deltaTiempo / deltaCommits;
+        latenciaCommitMicros.set((long) (mediaNanos / 1_000));
+        return mediaNanos / 1_000_000;
+    }
+
+    // Mensajes pendientes en la cola según el statisticsBrokerPlugin; -1 si no responde
+    private long profundidad(String cola) {
+        long profundidad = -1;
+        try {
+            Message respuesta = consultaEstadisticas.sendAndReceive(PREFIJO_ESTADISTICAS + cola,
+                    session -> session.createMessage());
+            if (respuesta instanceof MapMessage estadisticas) {
+                profundidad = estadisticas.getLong("size");
+            }
+        } catch (Exception e) {
+            log.debug("MS2 EJECUTOR - No se pudo consultar la profundidad de {}: {}", cola, e.getMessage());
+        }
+        if (profundidad < 0 && estadisticasDisponibles) {
+            estadisticasDisponibles = false;
+            log.warn("MS2 EJECUTOR - El broker no respondió estadísticas de {}; ¿está habilitado el "
+                    + "statisticsBrokerPlugin? Solo se aplicará la reducción por latencia", cola);
+        } else if (profundidad >= 0) {
+            estadisticasDisponibles = true;
+        }
+        profundidades.computeIfAbsent(cola, this::registrarProfundidad).set(profundidad);
+        return profundidad;
+    }
+
+    private AtomicLong registrarProfundidad(String cola) {
+        AtomicLong valor = new AtomicLong(-1);
+        Gauge.builder("transacciones.autoescalado.profundidad_cola", valor, AtomicLong::get)
+                .description("Mensajes pendientes en la cola según el broker (-1 si no se conoce)")
+                .tag("cola", cola)
+                .register(meterRegistry);
+        return valor;
+    }
+}
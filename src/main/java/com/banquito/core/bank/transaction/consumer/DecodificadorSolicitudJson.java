@@ -0,0 +1,93 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Decodificador por streaming: recorre los tokens con un JsonParser y llena el DTO
+// directamente, sin árbol intermedio ni introspección de databind. Acepta los mismos
+// formatos que el ObjectMapper de MS1 (monto numérico o texto, timestamp ISO o arreglo)
+// e ignora las propiedades desconocidas
+public final class DecodificadorSolicitudJson {
+
+    private final JsonFactory jsonFactory;
+
+    public DecodificadorSolicitudJson(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public TransaccionesSolicitudDTO decodificar(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Se esperaba un objeto JSON");
+            }
+            TransaccionesSolicitudDTO dto = new TransaccionesSolicitudDTO();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                switch (campo) {
+                    case "numeroCuentaOrigen" -> dto.setNumeroCuentaOrigen(texto(parser, valor));
+                    case "numeroCuentaDestino" -> dto.setNumeroCuentaDestino(texto(parser, valor));
+                    case "tipoTransaccion" -> dto.setTipoTransaccion(texto(parser, valor));
+                    case "monto" -> dto.setMonto(dinero(parser, valor));
+                    case "descripcion" -> dto.setDescripcion(texto(parser, valor));
+                    case "timestamp" -> dto.setTimestamp(fecha(parser, valor));
+                    case "claveIdempotencia" -> dto.setClaveIdempotencia(texto(parser, valor));
+                    default -> parser.skipChildren();
+                }
+            }
+            return dto;
+        }
+    }
+
+    private static String texto(JsonParser parser, JsonToken valor) throws IOException {
+        if (valor == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (valor.isScalarValue()) {
+            return parser.getText();
+        }
+        throw new JsonParseException(parser, "Se esperaba un valor de texto en " + parser.currentName());
+    }
+
+    // El texto del token se convierte directamente a centavos, sin BigDecimal intermedio
+    private static Dinero dinero(JsonParser parser, JsonToken valor) throws IOException {
+        return switch (valor) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> Dinero.parse(parser.getText());
+            case VALUE_STRING -> Dinero.parse(parser.getText().trim());
+            default -> throw new JsonParseException(parser, "Monto con formato inválido");
+        };
+    }
+
+    private static LocalDateTime fecha(JsonParser parser, JsonToken valor) throws IOException {
+        if (valor == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (valor == JsonToken.VALUE_STRING) {
+            return LocalDateTime.parse(parser.getText());
+        }
+        if (valor == JsonToken.START_ARRAY) {
+            // Formato de JavaTimeModule con WRITE_DATES_AS_TIMESTAMPS: [anio, mes, dia, hora, minuto, seg, nanos]
+            int[] partes = new int[7];
+            int cantidad = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (cantidad == partes.length) {
+                    throw new JsonParseException(parser, "Timestamp con demasiados componentes");
+                }
+                partes[cantidad++] = parser.getIntValue();
+            }
+            if (cantidad < 5) {
+                throw new JsonParseException(parser, "Timestamp incompleto");
+            }
+            return LocalDateTime.of(partes[0], partes[1], partes[2], partes[3], partes[4], partes[5], partes[6]);
+        }
+        throw new JsonParseException(parser, "Timestamp con formato inválido");
+    }
+}
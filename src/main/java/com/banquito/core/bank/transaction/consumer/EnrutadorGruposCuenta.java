@@ -0,0 +1,72 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+// Los grupos de mensajes de ActiveMQ se asignan por cola, y MS1 publica depósitos, retiros y
+// transferencias en colas distintas. Para que todas las operaciones de una cuenta caigan en
+// el mismo grupo, las colas por tipo solo validan y reenvían el mensaje a una cola única con
+// JMSXGroupID = numeroCuentaOrigen. El broker entrega cada grupo a un solo consumidor (de
+// cualquier instancia) y en orden FIFO; si ese consumidor se cierra, reasigna el grupo y
+// reentrega primero sus mensajes sin acuse. El acuse de la cola por tipo ocurre después del
+// envío: una caída entre ambos reenvía el mensaje con la misma clave de idempotencia
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.grupos.habilitado", havingValue = "true")
+public class EnrutadorGruposCuenta {
+
+    public static final String PROPIEDAD_TIPO = "tipoTransaccion";
+    private static final String PROPIEDAD_GRUPO = "JMSXGroupID";
+
+    private final JmsTemplate jmsTemplate;
+    private final LectorMensajesTransaccion lectorMensajes;
+    private final TransaccionesMetricas metricas;
+
+    @Value("${colas.transacciones.cuentas}")
+    private String colaCuentas;
+
+    public EnrutadorGruposCuenta(JmsTemplate jmsTemplate, LectorMensajesTransaccion lectorMensajes,
+            TransaccionesMetricas metricas) {
+        this.jmsTemplate = jmsTemplate;
+        this.lectorMensajes = lectorMensajes;
+        this.metricas = metricas;
+    }
+
+    public void reenviar(Message message, String tipoEsperado) {
+        try {
+            // Un mensaje inválido falla aquí y termina en la DLQ de su cola por tipo
+            TransaccionesSolicitudDTO dto = lectorMensajes.leer(message, tipoEsperado);
+            String texto = ((TextMessage) message).getText();
+            long enviadoEn = lectorMensajes.enviadoEn(message);
+            int modoEntrega = message.getJMSDeliveryMode();
+            int prioridad = message.getJMSPriority();
+
+            // Sesión y productor de la CachingConnectionFactory
+            jmsTemplate.execute(colaCuentas, (session, productor) -> {
+                TextMessage reenviado = session.createTextMessage(texto);
+                reenviado.setStringProperty(PROPIEDAD_GRUPO, dto.getNumeroCuentaOrigen());
+                reenviado.setStringProperty(PROPIEDAD_TIPO, tipoEsperado);
+                reenviado.setStringProperty(LectorMensajesTransaccion.PROPIEDAD_CLAVE_IDEMPOTENCIA,
+                        dto.getClaveIdempotencia());
+                reenviado.setLongProperty(LectorMensajesTransaccion.PROPIEDAD_ENVIADO_EN, enviadoEn);
+                productor.send(reenviado, modoEntrega, prioridad, Message.DEFAULT_TIME_TO_LIVE);
+                return null;
+            });
+            log.debug("MS2 EJECUTOR - Transacción {} de cuenta {} reenviada a {}", tipoEsperado,
+                    dto.getNumeroCuentaOrigen(), colaCuentas);
+        } catch (JMSException | RuntimeException e) {
+            metricas.registrarError(tipoEsperado, e);
+            log.error("MS2 EJECUTOR - Error reenviando transacción {} a la cola por cuenta: {}", tipoEsperado,
+                    e.getMessage());
+            throw new RuntimeException("Error reenviando mensaje JMS: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.TextMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.concurrent.TimeUnit;
+
+// Convierte y valida los mensajes JMS de transacciones; compartido por los
+// consumidores mensaje a mensaje y por lotes. El ObjectReader y el decodificador
+// por streaming se construyen una sola vez y se reutilizan en cada mensaje
+@Component
+@Slf4j
+public class LectorMensajesTransaccion {
+
+    // Propiedades que conserva un mensaje reenviado a la cola agrupada por cuenta: la clave de
+    // idempotencia resuelta (el JMSMessageID cambia al reenviar) y el JMSTimestamp de MS1
+    public static final String PROPIEDAD_CLAVE_IDEMPOTENCIA = "claveIdempotencia";
+    public static final String PROPIEDAD_ENVIADO_EN = "enviadoEnMs";
+
+    public enum Decodificador {
+        // JsonParser directo sobre el DTO, sin databind
+        STREAMING,
+        // ObjectReader compartido de Jackson databind
+        DATABIND
+    }
+
+    private final Decodificador decodificador;
+    private final ObjectReader lectorDto;
+    private final DecodificadorSolicitudJson decodificadorStreaming;
+    private final Timer tiempoDecodificacion;
+
+    public LectorMensajesTransaccion(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${transacciones.mensajes.decodificador:STREAMING}") Decodificador decodificador) {
+        this.decodificador = decodificador;
+        this.lectorDto = objectMapper.readerFor(TransaccionesSolicitudDTO.class);
+        this.decodificadorStreaming = new DecodificadorSolicitudJson(objectMapper.getFactory());
+        this.tiempoDecodificacion = Timer.builder("transacciones.mensaje.decodificacion")
+                .description("Tiempo de deserialización del mensaje JMS al DTO")
+                .tag("decodificador", decodificador.name())
+                .register(meterRegistry);
+    }
+
+    public TransaccionesSolicitudDTO leer(Message message, String tipoEsperado) throws JMSException {
+        String jsonMessage;
+
+        // Extraer el texto del mensaje JMS
+        if (message instanceof TextMessage) {
+            jsonMessage = ((TextMessage) message).getText();
+            log.info("MS2 EJECUTOR - Recibiendo mensaje {} desde cola: {}", tipoEsperado, jsonMessage);
+        } else {
+            throw new IllegalArgumentException("Mensaje recibido no es un TextMessage");
+        }
+
+        TransaccionesSolicitudDTO dto = decodificar(jsonMessage);
+        if (dto.getClaveIdempotencia() == null || dto.getClaveIdempotencia().isBlank()) {
+            // El JMSMessageID se conserva en las reentregas del broker
+            String clave = message.getStringProperty(PROPIEDAD_CLAVE_IDEMPOTENCIA);
+            dto.setClaveIdempotencia(clave != null ? clave : message.getJMSMessageID());
+        }
+
+        log.info(
+                "MS2 EJECUTOR - Transacción {} deserializada: tipo={}, monto={}, cuentaOrigen={}, cuentaDestino={}",
+                tipoEsperado, dto.getTipoTransaccion(), dto.getMonto(), dto.getNumeroCuentaOrigen(),
+                dto.getNumeroCuentaDestino());
+
+        validar(dto, tipoEsperado);
+        return dto;
+    }
+
+    // Momento en que MS1 envió el mensaje, aunque haya pasado por la cola agrupada
+    public long enviadoEn(Message message) throws JMSException {
+        return message.propertyExists(PROPIEDAD_ENVIADO_EN)
+                ? message.getLongProperty(PROPIEDAD_ENVIADO_EN)
+                : message.getJMSTimestamp();
+    }
+
+    private TransaccionesSolicitudDTO decodificar(String json) {
+        long inicio = System.nanoTime();
+        try {
+            return decodificador == Decodificador.STREAMING
+                    ? decodificadorStreaming.decodificar(json)
+                    : lectorDto.readValue(json);
+        } catch (IOException | DateTimeException | NumberFormatException e) {
+            throw new IllegalArgumentException("JSON de transacción inválido: " + e.getMessage(), e);
+        } finally {
+            tiempoDecodificacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void validar(TransaccionesSolicitudDTO dto, String tipoEsperado) {
+        // Validaciones básicas del DTO
+        if (dto.getTipoTransaccion() == null || dto.getTipoTransaccion().trim().isEmpty()) {
+            throw new IllegalArgumentException("TipoTransaccion es requerido");
+        }
+
+        // Validar que el tipo de transacción coincida con la cola esperada
+        if (!tipoEsperado.equals(dto.getTipoTransaccion())) {
+            throw new IllegalArgumentException(
+                    String.format("Tipo de transacción incorrecto. Esperado: %s, Recibido: %s",
+                            tipoEsperado, dto.getTipoTransaccion()));
+        }
+
+        if (dto.getNumeroCuentaOrigen() == null || dto.getNumeroCuentaOrigen().trim().isEmpty()) {
+            throw new IllegalArgumentException("NumeroCuentaOrigen es requerido");
+        }
+
+        if (dto.getMonto() == null || !dto.getMonto().esPositivo()) {
+            throw new IllegalArgumentException("Monto debe ser mayor que cero");
+        }
+    }
+}
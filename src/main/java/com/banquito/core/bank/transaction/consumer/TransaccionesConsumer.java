@@ -4,95 +4,126 @@ import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
 import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
 import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
 import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.executor.CarrilesCuentaExecutor;
+import com.banquito.core.bank.transaction.executor.LimitadorConcurrenciaBD;
+import com.banquito.core.bank.transaction.executor.PlanificadorJustoBD;
+import com.banquito.core.bank.transaction.executor.SqlDirectoExecutor;
+import com.banquito.core.bank.transaction.logging.EventosTransaccion;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
 import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.IdempotenciaTransacciones;
+import com.banquito.core.bank.transaction.service.MetadatosCuentasCache;
 import com.banquito.core.bank.transaction.service.TransaccionesService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 import jakarta.jms.Message;
-import jakarta.jms.TextMessage;
 import jakarta.jms.JMSException;
 
+import java.util.function.Supplier;
+
+// En modo lote las colas se drenan desde TransaccionesLoteConsumer
 @Component
 @Slf4j
+@ConditionalOnProperty(name = "transacciones.lote.habilitado", havingValue = "false", matchIfMissing = true)
 public class TransaccionesConsumer {
 
     private final TransaccionesService transaccionesService;
-
-    public TransaccionesConsumer(TransaccionesService transaccionesService) {
+    private final LectorMensajesTransaccion lectorMensajes;
+    private final LimitadorConcurrenciaBD limitador;
+    private final TransaccionesMetricas metricas;
+    private final EventosTransaccion eventos;
+    private final IdempotenciaTransacciones idempotencia;
+    // Solo presente con transacciones.carriles.habilitado=true
+    private final CarrilesCuentaExecutor carriles;
+    // Solo presente con transacciones.sql-directo.habilitado=true
+    private final SqlDirectoExecutor sqlDirecto;
+    // Solo presente con transacciones.planificador.habilitado=true; reemplaza al limitador
+    private final PlanificadorJustoBD planificador;
+    // Solo presente con transacciones.grupos.habilitado=true
+    private final EnrutadorGruposCuenta enrutadorGrupos;
+    // Solo presente con transacciones.cache-cuentas.habilitado=true
+    private final MetadatosCuentasCache metadatosCuentas;
+
+    public TransaccionesConsumer(TransaccionesService transaccionesService,
+            LectorMensajesTransaccion lectorMensajes, LimitadorConcurrenciaBD limitador,
+            TransaccionesMetricas metricas, EventosTransaccion eventos, IdempotenciaTransacciones idempotencia,
+            ObjectProvider<CarrilesCuentaExecutor> carriles, ObjectProvider<SqlDirectoExecutor> sqlDirecto,
+            ObjectProvider<PlanificadorJustoBD> planificador, ObjectProvider<EnrutadorGruposCuenta> enrutadorGrupos,
+            ObjectProvider<MetadatosCuentasCache> metadatosCuentas) {
         this.transaccionesService = transaccionesService;
+        this.lectorMensajes = lectorMensajes;
+        this.limitador = limitador;
+        this.metricas = metricas;
+        this.eventos = eventos;
+        this.idempotencia = idempotencia;
+        this.carriles = carriles.getIfAvailable();
+        this.sqlDirecto = sqlDirecto.getIfAvailable();
+        this.planificador = planificador.getIfAvailable();
+        this.enrutadorGrupos = enrutadorGrupos.getIfAvailable();
+        this.metadatosCuentas = metadatosCuentas.getIfAvailable();
     }
 
     // Consumer para cola de DEPÓSITOS
-    @JmsListener(destination = "${colas.transacciones.deposito}", concurrency = "2-5")
+    @JmsListener(destination = "${colas.transacciones.deposito}", concurrency = "${transacciones.listener.concurrencia:2-5}")
     public void procesarDeposito(Message message) {
-        procesarTransaccion(message, "DEPOSITO");
+        recibir(message, "DEPOSITO");
     }
 
     // Consumer para cola de RETIROS
-    @JmsListener(destination = "${colas.transacciones.retiro}", concurrency = "2-5")
+    @JmsListener(destination = "${colas.transacciones.retiro}", concurrency = "${transacciones.listener.concurrencia:2-5}")
     public void procesarRetiro(Message message) {
-        procesarTransaccion(message, "RETIRO");
+        recibir(message, "RETIRO");
+    }
+
+    // Consumer para cola de TRANSFERENCIAS: débito y crédito en un solo mensaje y un solo commit
+    @JmsListener(destination = "${colas.transacciones.transferencia}", concurrency = "${transacciones.listener.concurrencia:2-5}")
+    public void procesarTransferencia(Message message) {
+        recibir(message, "TRANSFERENCIA");
+    }
+
+    // Con grupos por cuenta las colas por tipo solo reenvían a la cola agrupada, que ejecuta
+    // TransaccionesGruposConsumer
+    private void recibir(Message message, String tipoEsperado) {
+        if (enrutadorGrupos != null) {
+            enrutadorGrupos.reenviar(message, tipoEsperado);
+            return;
+        }
+        procesarTransaccion(message, tipoEsperado);
     }
 
     // Método común para procesar transacciones de cualquier tipo
-    private void procesarTransaccion(Message message, String tipoEsperado) {
+    void procesarTransaccion(Message message, String tipoEsperado) {
+        long inicio = System.nanoTime();
+        Transacciones.TipoTransaccionEnum tipo = Transacciones.TipoTransaccionEnum.valueOf(tipoEsperado);
         TransaccionesSolicitudDTO dto = null;
-        String jsonMessage = null;
         try {
-            // Extraer el texto del mensaje JMS
-            if (message instanceof TextMessage) {
-                jsonMessage = ((TextMessage) message).getText();
-                log.info("MS2 EJECUTOR - Recibiendo mensaje {} desde cola: {}", tipoEsperado, jsonMessage);
-            } else {
-                throw new IllegalArgumentException("Mensaje recibido no es un TextMessage");
-            }
-
-            // Deserializar manualmente el JSON a nuestro DTO
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.registerModule(new JavaTimeModule());
-            objectMapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
-                    false);
+            dto = lectorMensajes.leer(message, tipoEsperado);
 
-            dto = objectMapper.readValue(jsonMessage, TransaccionesSolicitudDTO.class);
-
-            log.info(
-                    "MS2 EJECUTOR - Transacción {} deserializada: tipo={}, monto={}, cuentaOrigen={}, cuentaDestino={}",
-                    tipoEsperado, dto.getTipoTransaccion(), dto.getMonto(), dto.getNumeroCuentaOrigen(),
-                    dto.getNumeroCuentaDestino());
-
-            // Validaciones básicas del DTO
-            if (dto.getTipoTransaccion() == null || dto.getTipoTransaccion().trim().isEmpty()) {
-                throw new IllegalArgumentException("TipoTransaccion es requerido");
-            }
-
-            // Validar que el tipo de transacción coincida con la cola esperada
-            if (!tipoEsperado.equals(dto.getTipoTransaccion())) {
-                throw new IllegalArgumentException(
-                        String.format("Tipo de transacción incorrecto. Esperado: %s, Recibido: %s",
-                                tipoEsperado, dto.getTipoTransaccion()));
-            }
-
-            if (dto.getNumeroCuentaOrigen() == null || dto.getNumeroCuentaOrigen().trim().isEmpty()) {
-                throw new IllegalArgumentException("NumeroCuentaOrigen es requerido");
-            }
-
-            if (dto.getMonto() == null || dto.getMonto().compareTo(java.math.BigDecimal.ZERO) <= 0) {
-                throw new IllegalArgumentException("Monto debe ser mayor que cero");
+            // Reentrega de un mensaje ya ejecutado: se acusa sin tocar la BD
+            if (idempotencia.esDuplicada(dto)) {
+                return;
             }
 
             // EJECUTAR la transacción (MS1 ya validó todo)
-            Transacciones resultado = transaccionesService.procesar(dto);
+            Transacciones resultado = ejecutar(dto, tipo, message.getJMSPriority());
+            idempotencia.registrar(dto.getClaveIdempotencia(), resultado.getId());
+            metricas.registrarResultado(tipo, resultado.getEstado());
+            metricas.registrarProcesamiento(tipo, inicio, lectorMensajes.enviadoEn(message));
+            eventos.registrar(resultado.getId(), resultado.getNumeroCuentaOrigen(), tipo, resultado.getMonto(),
+                    resultado.getEstado().name(), null, inicio);
 
             log.info("MS2 EJECUTOR - Transacción {} ejecutada exitosamente: ID={}, Estado={}",
                     tipoEsperado, resultado.getId(), resultado.getEstado());
 
         } catch (JMSException e) {
+            metricas.registrarError(tipoEsperado, e);
             log.error("MS2 EJECUTOR - Error al extraer mensaje JMS {}: {}", tipoEsperado, e.getMessage(), e);
             throw new RuntimeException("Error procesando mensaje JMS: " + e.getMessage(), e);
         } catch (SaldoInsuficienteException e) {
+            registrarErrorNegocio(message, dto, tipo, inicio, e);
             // Error de negocio: solo log del error sin stack trace completo
             log.error("MS2 EJECUTOR - Error de negocio en transacción {} de cuenta {}: {}",
                     tipoEsperado, dto != null ? dto.getNumeroCuentaOrigen() : "unknown", e.getMessage());
@@ -101,6 +132,7 @@ public class TransaccionesConsumer {
             // como ERROR
 
         } catch (CuentaNoEncontradaException e) {
+            registrarErrorNegocio(message, dto, tipo, inicio, e);
             // Error de negocio: solo log del error sin stack trace completo
             log.error("MS2 EJECUTOR - Error de negocio en transacción {} de cuenta {}: {}",
                     tipoEsperado, dto != null ? dto.getNumeroCuentaOrigen() : "unknown", e.getMessage());
@@ -109,6 +141,7 @@ public class TransaccionesConsumer {
             // como ERROR
 
         } catch (TransaccionException e) {
+            registrarErrorNegocio(message, dto, tipo, inicio, e);
             // Error de negocio: solo log del error sin stack trace completo
             log.error("MS2 EJECUTOR - Error de negocio en transacción {} de cuenta {}: {}",
                     tipoEsperado, dto != null ? dto.getNumeroCuentaOrigen() : "unknown", e.getMessage());
@@ -117,6 +150,14 @@ public class TransaccionesConsumer {
             // como ERROR
 
         } catch (Exception e) {
+            if (dto != null && idempotencia.esClaveDuplicada(e)) {
+                // Otra entrega de la misma clave ya se confirmó; esta se revirtió completa
+                idempotencia.registrarDuplicadoBd(dto);
+                return;
+            }
+            metricas.registrarError(tipoEsperado, e);
+            eventos.registrar(null, dto != null ? dto.getNumeroCuentaOrigen() : null, tipo,
+                    dto != null ? dto.getMonto() : null, "FALLIDA", e.getClass().getSimpleName(), inicio);
             log.error("MS2 EJECUTOR - Error técnico ejecutando transacción {} de cuenta {}: {}",
                     tipoEsperado, dto != null ? dto.getNumeroCuentaOrigen() : "unknown", e.getMessage(), e);
 
@@ -125,4 +166,74 @@ public class TransaccionesConsumer {
             throw new RuntimeException("Error técnico ejecutando transacción: " + e.getMessage(), e);
         }
     }
+
+    // El registro ERROR ya quedó persistido: cuenta como resultado y como excepción
+    private void registrarErrorNegocio(Message message, TransaccionesSolicitudDTO dto,
+            Transacciones.TipoTransaccionEnum tipo, long inicio, RuntimeException e) {
+        if (dto != null) {
+            idempotencia.registrar(dto.getClaveIdempotencia(), null);
+        }
+        metricas.registrarError(tipo.name(), e);
+        metricas.registrarResultado(tipo, Transacciones.EstadoTransaccionesEnum.ERROR);
+        long enviado;
+        try {
+            enviado = lectorMensajes.enviadoEn(message);
+        } catch (JMSException jmsException) {
+            enviado = 0;
+        }
+        metricas.registrarProcesamiento(tipo, inicio, enviado);
+        eventos.registrar(null, dto != null ? dto.getNumeroCuentaOrigen() : null, tipo,
+                dto != null ? dto.getMonto() : null, Transacciones.EstadoTransaccionesEnum.ERROR.name(),
+                e.getClass().getSimpleName(), inicio);
+    }
+
+    // El limitador (o el planificador, que además reparte los permisos por tipo y prioridad)
+    // acota cuántos mensajes usan la BD a la vez. La ruta SQL directa tiene prioridad; con
+    // carriles la cuenta se serializa en memoria y no en la fila, y el permiso se pide ya dentro
+    // del carril: esperar turno en la cola del carril no retiene un permiso (ni una conexión)
+    private Transacciones ejecutar(TransaccionesSolicitudDTO dto, Transacciones.TipoTransaccionEnum tipo,
+            int prioridad) {
+        // Cuentas inexistentes o no activas se rechazan sin bloquear la fila: solo se inserta el
+        // registro ERROR (y su evento) para que MS1 reciba el resultado
+        if (metadatosCuentas != null) {
+            validarCuentas(dto, tipo, prioridad);
+        }
+        if (sqlDirecto != null && sqlDirecto.admite(dto)) {
+            return conPermisoBd(tipo, prioridad, () -> sqlDirecto.ejecutar(dto));
+        }
+        if (carriles == null) {
+            return conPermisoBd(tipo, prioridad, () -> transaccionesService.procesar(dto));
+        }
+        return carriles.ejecutar(dto.getNumeroCuentaOrigen(),
+                () -> conPermisoBd(tipo, prioridad, () -> transaccionesService.procesarSinBloqueo(dto)));
+    }
+
+    private void validarCuentas(TransaccionesSolicitudDTO dto, Transacciones.TipoTransaccionEnum tipo,
+            int prioridad) {
+        try {
+            if (metadatosCuentas.validarEnCache(dto)) {
+                return;
+            }
+        } catch (CuentaNoEncontradaException | TransaccionException e) {
+            conPermisoBd(tipo, prioridad, () -> transaccionesService.registrarRechazo(dto));
+            throw e;
+        }
+        // Fallo de caché: la consulta usa una conexión del pool, así que espera su permiso como
+        // cualquier otro acceso a la BD, y el rechazo se registra con ese mismo permiso
+        conPermisoBd(tipo, prioridad, () -> {
+            try {
+                metadatosCuentas.validar(dto);
+            } catch (CuentaNoEncontradaException | TransaccionException e) {
+                transaccionesService.registrarRechazo(dto);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    private <T> T conPermisoBd(Transacciones.TipoTransaccionEnum tipo, int prioridad, Supplier<T> operacion) {
+        return planificador != null
+                ? planificador.ejecutar(tipo, prioridad, operacion)
+                : limitador.ejecutar(operacion);
+    }
 }
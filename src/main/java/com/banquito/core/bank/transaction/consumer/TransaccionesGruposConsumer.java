@@ -0,0 +1,143 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.advisory.AdvisorySupport;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Ejecuta la cola agrupada por cuenta que llena EnrutadorGruposCuenta. Cada consumidor recibe
+// solo las cuentas cuyo grupo le asignó el broker, así que las operaciones de una cuenta no
+// compiten por el bloqueo de su fila aunque haya varias instancias. La ejecución es la misma
+// de TransaccionesConsumer (idempotencia, SQL directo, limitador, métricas).
+// Rebalanceo: cuando un consumidor se cierra (una instancia sale), el broker reparte sus grupos
+// entre los restantes; cuando se agrega uno, recibe las cuentas nuevas y las que el broker
+// olvida de su mapa de grupos. Ambos casos quedan en el log: JMSXGroupFirstForConsumer marca
+// cada grupo recién asignado a este consumidor y los avisos de consumidores de la cola
+// registran cada alta o baja
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.grupos.habilitado", havingValue = "true")
+public class TransaccionesGruposConsumer implements SmartLifecycle {
+
+    private static final String PROPIEDAD_PRIMERO_DEL_GRUPO = "JMSXGroupFirstForConsumer";
+
+    private final TransaccionesConsumer consumidor;
+    private final ActiveMQConnectionFactory connectionFactory;
+    private final Counter gruposAsignados;
+    private final Counter altasConsumidores;
+    private final Counter bajasConsumidores;
+    // Consumidores de la cola agrupada en todas las instancias, según el último aviso del broker
+    private final AtomicInteger consumidores = new AtomicInteger(-1);
+
+    @Value("${colas.transacciones.cuentas}")
+    private String colaCuentas;
+
+    private volatile boolean activo;
+    private Connection connection;
+
+    public TransaccionesGruposConsumer(ObjectProvider<TransaccionesConsumer> consumidor,
+            ActiveMQConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.consumidor = consumidor.getIfAvailable();
+        if (this.consumidor == null) {
+            throw new IllegalStateException("transacciones.grupos.habilitado no se combina con el consumo por lotes");
+        }
+        this.connectionFactory = connectionFactory;
+        this.gruposAsignados = Counter.builder("transacciones.grupos.asignaciones")
+                .description("Cuentas (grupos JMS) asignadas por el broker a un consumidor de esta instancia")
+                .register(meterRegistry);
+        this.altasConsumidores = Counter.builder("transacciones.grupos.rebalanceos")
+                .description("Cambios en los consumidores de la cola agrupada por cuenta")
+                .tag("cambio", "alta")
+                .register(meterRegistry);
+        this.bajasConsumidores = Counter.builder("transacciones.grupos.rebalanceos")
+                .description("Cambios en los consumidores de la cola agrupada por cuenta")
+                .tag("cambio", "baja")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.grupos.consumidores", consumidores, AtomicInteger::get)
+                .description("Consumidores de la cola agrupada por cuenta en todas las instancias")
+                .register(meterRegistry);
+    }
+
+    // Concurrencia fija (mínimo = máximo): con un rango, el escalado dinámico cerraría
+    // consumidores ociosos y movería sus grupos sin necesidad
+    @JmsListener(destination = "${colas.transacciones.cuentas}",
+            concurrency = "${transacciones.grupos.consumidores:5}-${transacciones.grupos.consumidores:5}")
+    public void procesarCuenta(Message message) throws JMSException {
+        if (message.propertyExists(PROPIEDAD_PRIMERO_DEL_GRUPO)
+                && message.getBooleanProperty(PROPIEDAD_PRIMERO_DEL_GRUPO)) {
+            gruposAsignados.increment();
+            log.info("MS2 EJECUTOR - Cuenta {} asignada al consumidor {}", message.getStringProperty("JMSXGroupID"),
+                    Thread.currentThread().getName());
+        }
+        String tipo = message.getStringProperty(EnrutadorGruposCuenta.PROPIEDAD_TIPO);
+        if (tipo == null) {
+            throw new IllegalArgumentException("Mensaje sin propiedad " + EnrutadorGruposCuenta.PROPIEDAD_TIPO);
+        }
+        consumidor.procesarTransaccion(message, tipo);
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            connection = connectionFactory.createConnection();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            MessageConsumer avisos = session.createConsumer(
+                    AdvisorySupport.getConsumerAdvisoryTopic(new ActiveMQQueue(colaCuentas)));
+            avisos.setMessageListener(this::registrarCambioConsumidores);
+            connection.start();
+        } catch (JMSException e) {
+            // Sin avisos solo se pierde el log de rebalanceo; el consumo sigue
+            log.warn("MS2 EJECUTOR - No se pudo suscribir a los avisos de consumidores de {}: {}", colaCuentas,
+                    e.getMessage());
+        }
+        activo = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        activo = false;
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (JMSException e) {
+            log.warn("MS2 EJECUTOR - Error cerrando la conexión de avisos de grupos: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    private void registrarCambioConsumidores(Message aviso) {
+        try {
+            int actuales = aviso.getIntProperty(AdvisorySupport.MSG_PROPERTY_CONSUMER_COUNT);
+            int anteriores = consumidores.getAndSet(actuales);
+            if (anteriores < 0 || actuales == anteriores) {
+                return;
+            }
+            (actuales > anteriores ? altasConsumidores : bajasConsumidores).increment();
+            log.info("MS2 EJECUTOR - Rebalanceo de grupos en {}: consumidores {} -> {}", colaCuentas, anteriores,
+                    actuales);
+        } catch (JMSException e) {
+            log.warn("MS2 EJECUTOR - Aviso de consumidores ilegible: {}", e.getMessage());
+        }
+    }
+}
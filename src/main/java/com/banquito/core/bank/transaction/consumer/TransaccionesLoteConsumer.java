@@ -0,0 +1,296 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
+import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
+import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.logging.EventosTransaccion;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.IdempotenciaTransacciones;
+import com.banquito.core.bank.transaction.service.TransaccionesLoteService;
+import com.banquito.core.bank.transaction.service.TransaccionesService;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Consumidor por lotes: drena hasta N mensajes o espera T ms, los ejecuta en una
+// sola transacción de BD y acusa recibo de los mensajes solo después del commit
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.lote.habilitado", havingValue = "true")
+public class TransaccionesLoteConsumer implements SmartLifecycle {
+
+    // Tiempo máximo bloqueado en receive() antes de revisar si el consumidor debe detenerse
+    private static final long ESPERA_RECEPCION_MS = 1000;
+
+    public enum ModoAcuse {
+        // Acuse por mensaje; los fallidos se reentregan por la política del broker
+        INDIVIDUAL,
+        // Un solo acuse por lote; los fallidos se reenvían a la cola de errores
+        CLIENTE
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final LectorMensajesTransaccion lectorMensajes;
+    private final TransaccionesLoteService transaccionesLoteService;
+    private final TransaccionesService transaccionesService;
+    private final TransaccionesMetricas metricas;
+    private final EventosTransaccion eventos;
+    private final IdempotenciaTransacciones idempotencia;
+
+    @Value("${colas.transacciones.deposito}")
+    private String colaDeposito;
+
+    @Value("${colas.transacciones.retiro}")
+    private String colaRetiro;
+
+    @Value("${colas.transacciones.transferencia}")
+    private String colaTransferencia;
+
+    @Value("${transacciones.lote.tamano-maximo:50}")
+    private int tamanoMaximo;
+
+    @Value("${transacciones.lote.espera-maxima-ms:20}")
+    private long esperaMaximaMs;
+
+    @Value("${transacciones.lote.consumidores:2}")
+    private int consumidoresPorCola;
+
+    @Value("${transacciones.lote.modo-acuse:INDIVIDUAL}")
+    private ModoAcuse modoAcuse;
+
+    @Value("${transacciones.lote.cola-errores:ActiveMQ.DLQ}")
+    private String colaErrores;
+
+    private final List<Thread> hilos = new ArrayList<>();
+    private volatile boolean activo;
+    private Connection connection;
+
+    // Fábrica física y no la CachingConnectionFactory: los hilos de lote mantienen sus propias
+    // sesiones y consumidores durante toda la vida del componente
+    public TransaccionesLoteConsumer(ActiveMQConnectionFactory connectionFactory,
+            LectorMensajesTransaccion lectorMensajes, TransaccionesLoteService transaccionesLoteService,
+            TransaccionesService transaccionesService, TransaccionesMetricas metricas, EventosTransaccion eventos,
+            IdempotenciaTransacciones idempotencia) {
+        this.connectionFactory = connectionFactory;
+        this.lectorMensajes = lectorMensajes;
+        this.transaccionesLoteService = transaccionesLoteService;
+        this.transaccionesService = transaccionesService;
+        this.metricas = metricas;
+        this.eventos = eventos;
+        this.idempotencia = idempotencia;
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            connection = connectionFactory.createConnection();
+            connection.start();
+        } catch (JMSException e) {
+            throw new IllegalStateException("No se pudo abrir la conexión JMS para el consumo por lotes", e);
+        }
+        activo = true;
+        for (int i = 1; i <= consumidoresPorCola; i++) {
+            iniciarHilo(colaDeposito, "DEPOSITO", i);
+            iniciarHilo(colaRetiro, "RETIRO", i);
+            iniciarHilo(colaTransferencia, "TRANSFERENCIA", i);
+        }
+        log.info("MS2 EJECUTOR - Consumo por lotes iniciado: tamano={}, espera={}ms, consumidores={}, acuse={}",
+                tamanoMaximo, esperaMaximaMs, consumidoresPorCola, modoAcuse);
+    }
+
+    @Override
+    public synchronized void stop() {
+        activo = false;
+        for (Thread hilo : hilos) {
+            try {
+                hilo.join(ESPERA_RECEPCION_MS * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        hilos.clear();
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (JMSException e) {
+            log.warn("MS2 EJECUTOR - Error cerrando la conexión JMS de lotes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    private void iniciarHilo(String cola, String tipo, int indice) {
+        Thread hilo = new Thread(() -> consumir(cola, tipo), "lote-" + tipo.toLowerCase() + "-" + indice);
+        hilo.start();
+        hilos.add(hilo);
+    }
+
+    private void consumir(String cola, String tipo) {
+        int modoSesion = modoAcuse == ModoAcuse.INDIVIDUAL
+                ? ActiveMQSession.INDIVIDUAL_ACKNOWLEDGE
+                : Session.CLIENT_ACKNOWLEDGE;
+        try (Session session = connection.createSession(false, modoSesion);
+                MessageConsumer consumer = session.createConsumer(session.createQueue(cola));
+                MessageProducer productorErrores = session.createProducer(session.createQueue(colaErrores))) {
+            while (activo) {
+                List<Message> mensajes = drenar(consumer);
+                if (!mensajes.isEmpty()) {
+                    procesarLote(session, productorErrores, mensajes, tipo);
+                }
+            }
+        } catch (JMSException e) {
+            if (activo) {
+                log.error("MS2 EJECUTOR - Consumidor por lotes de {} detenido por error JMS: {}", tipo,
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    // Espera el primer mensaje y luego acumula hasta completar el lote o agotar la espera máxima
+    private List<Message> drenar(MessageConsumer consumer) throws JMSException {
+        List<Message> mensajes = new ArrayList<>(tamanoMaximo);
+        Message primero = consumer.receive(ESPERA_RECEPCION_MS);
+        if (primero == null) {
+            return mensajes;
+        }
+        mensajes.add(primero);
+
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        while (mensajes.size() < tamanoMaximo) {
+            long restanteMs = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            Message siguiente = restanteMs > 0 ? consumer.receive(restanteMs) : consumer.receiveNoWait();
+            if (siguiente == null) {
+                break;
+            }
+            mensajes.add(siguiente);
+        }
+        return mensajes;
+    }
+
+    private void procesarLote(Session session, MessageProducer productorErrores, List<Message> mensajes,
+            String tipo) throws JMSException {
+        long inicio = System.nanoTime();
+        List<Message> validos = new ArrayList<>(mensajes.size());
+        List<TransaccionesSolicitudDTO> dtos = new ArrayList<>(mensajes.size());
+        List<Message> fallidos = new ArrayList<>();
+        List<Message> confirmados = new ArrayList<>(mensajes.size());
+
+        for (Message mensaje : mensajes) {
+            try {
+                TransaccionesSolicitudDTO dto = lectorMensajes.leer(mensaje, tipo);
+                if (idempotencia.esDuplicada(dto)) {
+                    // Reentrega de un mensaje ya ejecutado: solo se acusa
+                    confirmados.add(mensaje);
+                    continue;
+                }
+                dtos.add(dto);
+                validos.add(mensaje);
+            } catch (Exception e) {
+                metricas.registrarError(tipo, e);
+                log.error("MS2 EJECUTOR - Mensaje {} inválido dentro del lote: {}", tipo, e.getMessage());
+                fallidos.add(mensaje);
+            }
+        }
+
+        if (!dtos.isEmpty()) {
+            try {
+                for (Transacciones transaccion : transaccionesLoteService.procesarLote(dtos)) {
+                    idempotencia.registrar(transaccion.getClaveIdempotencia(), transaccion.getId());
+                    metricas.registrarResultado(transaccion.getTipoTransaccion(), transaccion.getEstado());
+                    eventos.registrar(transaccion.getId(), transaccion.getNumeroCuentaOrigen(),
+                            transaccion.getTipoTransaccion(), transaccion.getMonto(), transaccion.getEstado().name(),
+                            null, inicio);
+                }
+                confirmados.addAll(validos);
+            } catch (Exception e) {
+                // Un error técnico revierte el lote completo: aislar cada mensaje y
+                // reintentarlo solo para que no contamine al resto
+                log.error("MS2 EJECUTOR - Error técnico en lote de {} ({} mensajes), reprocesando individualmente: {}",
+                        tipo, dtos.size(), e.getMessage());
+                for (int i = 0; i < dtos.size(); i++) {
+                    if (procesarIndividual(dtos.get(i), tipo, inicio)) {
+                        confirmados.add(validos.get(i));
+                    } else {
+                        fallidos.add(validos.get(i));
+                    }
+                }
+            }
+        }
+
+        acusar(session, productorErrores, mensajes, confirmados, fallidos);
+    }
+
+    private boolean procesarIndividual(TransaccionesSolicitudDTO dto, String tipo, long inicio) {
+        try {
+            Transacciones resultado = transaccionesService.procesar(dto);
+            idempotencia.registrar(dto.getClaveIdempotencia(), resultado.getId());
+            metricas.registrarResultado(resultado.getTipoTransaccion(), resultado.getEstado());
+            eventos.registrar(resultado.getId(), resultado.getNumeroCuentaOrigen(), resultado.getTipoTransaccion(),
+                    resultado.getMonto(), resultado.getEstado().name(), null, inicio);
+            log.info("MS2 EJECUTOR - Transacción {} aislada ejecutada: ID={}, Estado={}", tipo,
+                    resultado.getId(), resultado.getEstado());
+            return true;
+        } catch (SaldoInsuficienteException | CuentaNoEncontradaException | TransaccionException e) {
+            // Error de negocio: la transacción ya quedó registrada como ERROR
+            idempotencia.registrar(dto.getClaveIdempotencia(), null);
+            metricas.registrarError(tipo, e);
+            metricas.registrarResultado(Transacciones.TipoTransaccionEnum.valueOf(tipo),
+                    Transacciones.EstadoTransaccionesEnum.ERROR);
+            log.error("MS2 EJECUTOR - Error de negocio en transacción {} de cuenta {}: {}", tipo,
+                    dto.getNumeroCuentaOrigen(), e.getMessage());
+            return true;
+        } catch (Exception e) {
+            if (idempotencia.esClaveDuplicada(e)) {
+                // Duplicado dentro del lote o ya confirmado antes: se acusa sin reintentar
+                idempotencia.registrarDuplicadoBd(dto);
+                return true;
+            }
+            metricas.registrarError(tipo, e);
+            log.error("MS2 EJECUTOR - Error técnico ejecutando transacción {} de cuenta {}: {}", tipo,
+                    dto.getNumeroCuentaOrigen(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    // El acuse ocurre siempre después del commit de BD
+    private void acusar(Session session, MessageProducer productorErrores, List<Message> mensajes,
+            List<Message> confirmados, List<Message> fallidos) throws JMSException {
+        if (modoAcuse == ModoAcuse.INDIVIDUAL) {
+            for (Message mensaje : confirmados) {
+                mensaje.acknowledge();
+            }
+            if (!fallidos.isEmpty()) {
+                // Solo los mensajes sin acuse vuelven a entregarse
+                session.recover();
+            }
+            return;
+        }
+
+        for (Message mensaje : fallidos) {
+            productorErrores.send(mensaje);
+        }
+        // En CLIENT_ACKNOWLEDGE un acuse confirma todos los mensajes recibidos por la sesión
+        mensajes.get(mensajes.size() - 1).acknowledge();
+    }
+}
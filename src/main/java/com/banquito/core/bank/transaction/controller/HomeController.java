@@ -1,29 +1,36 @@
 package com.banquito.core.bank.transaction.controller;
 
+import com.banquito.core.bank.transaction.dto.SaludSistemaDTO;
+import com.banquito.core.bank.transaction.service.DiagnosticoTransaccionesService;
+import com.banquito.core.bank.transaction.service.SaludService;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
-import java.util.Map;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @Tag(name = "Sistema", description = "Endpoints de monitoreo y estado del sistema")
 public class HomeController {
 
-    @Autowired
-    JdbcTemplate jdbcTemplate;
+    private final SaludService saludService;
+    private final DiagnosticoTransaccionesService diagnosticoTransacciones;
+
+    public HomeController(SaludService saludService, DiagnosticoTransaccionesService diagnosticoTransacciones) {
+        this.saludService = saludService;
+        this.diagnosticoTransacciones = diagnosticoTransacciones;
+    }
 
     @Operation(summary = "Mensaje de bienvenida del servicio", description = "Endpoint básico que confirma que el servicio está ejecutándose correctamente", operationId = "mensajeBienvenida")
     @ApiResponses(value = {
@@ -34,14 +41,40 @@ public class HomeController {
         return new ResponseEntity<>("Welcome to CORE BANK TRANSACTION project, SERVER ✅", HttpStatus.OK);
     }
 
-    @Operation(summary = "Verificar conexión a base de datos", description = "Endpoint para verificar la conectividad con la base de datos consultando todas las transacciones", operationId = "verificarBaseDatos")
+    @Operation(summary = "Verificar dependencias del servicio", description = "Sondas baratas de base de datos, broker JMS y saturación del pool de conexiones. El resultado se reutiliza durante unos segundos", operationId = "verificarBaseDatos")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Conexión a base de datos exitosa", content = @Content(mediaType = "application/json", schema = @Schema(type = "array", implementation = Map.class))),
-            @ApiResponse(responseCode = "500", description = "Error de conexión a base de datos", content = @Content(mediaType = "application/json"))
+            @ApiResponse(responseCode = "200", description = "Dependencias disponibles o degradadas", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SaludSistemaDTO.class), examples = @ExampleObject(name = "Servicio listo", value = """
+                    {
+                        "estado": "UP",
+                        "verificadoEn": "2025-08-11T07:10:45.123Z",
+                        "sondas": {
+                            "bd": { "estado": "UP", "latenciaMs": 2, "detalle": null },
+                            "broker": { "estado": "UP", "latenciaMs": 5, "detalle": null },
+                            "pool": { "estado": "UP", "latenciaMs": 0, "detalle": "activas=3, inactivas=7, esperando=0, maximo=10" }
+                        }
+                    }
+                    """))),
+            @ApiResponse(responseCode = "503", description = "La base de datos o el broker no responden", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SaludSistemaDTO.class)))
     })
-    @Hidden // Oculta este endpoint de la documentación pública por seguridad
     @GetMapping("/check")
-    public List<Map<String, Object>> checkDB() {
-        return jdbcTemplate.queryForList("SELECT * FROM account.transacciones");
+    public ResponseEntity<SaludSistemaDTO> checkDB() {
+        SaludSistemaDTO salud = saludService.consultar();
+        HttpStatus status = SaludService.DOWN.equals(salud.getEstado()) ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK;
+        return ResponseEntity.status(status).body(salud);
+    }
+
+    @Operation(summary = "Diagnóstico del diario de transacciones", description = "Devuelve en streaming (NDJSON), de la más reciente a la más antigua, las transacciones anteriores a antesDeId. Para la página siguiente se envía como antesDeId el último ID recibido", operationId = "diagnosticoTransacciones")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página del diario", content = @Content(mediaType = "application/x-ndjson"))
+    })
+    @Hidden // Oculta este endpoint de la documentación pública por seguridad
+    @GetMapping("/diagnostico/transacciones")
+    public ResponseEntity<StreamingResponseBody> diagnosticoTransacciones(
+            @Parameter(description = "Devuelve transacciones con ID menor a este; sin valor, desde la más reciente") @RequestParam(required = false) Long antesDeId,
+            @Parameter(description = "Máximo de transacciones a devolver (acotado por transacciones.diagnostico.limite-maximo)", example = "100") @RequestParam(defaultValue = "100") int limite) {
+
+        long cursor = antesDeId != null ? antesDeId : Long.MAX_VALUE;
+        StreamingResponseBody cuerpo = salida -> diagnosticoTransacciones.escribir(cursor, limite, salida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
     }
 }
@@ -3,8 +3,9 @@ package com.banquito.core.bank.transaction.controller;
 import com.banquito.core.bank.transaction.dto.ErrorRespuestaDTO;
 import com.banquito.core.bank.transaction.dto.HealthRespuestaDTO;
 import com.banquito.core.bank.transaction.dto.TransaccionRespuestaDTO;
-import com.banquito.core.bank.transaction.model.Transacciones;
-import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import com.banquito.core.bank.transaction.service.ConsultaEstadoLoteService;
+import com.banquito.core.bank.transaction.service.EstadoCuentaService;
+import com.banquito.core.bank.transaction.service.EstadoTransaccionesCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +15,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -26,10 +34,15 @@ import java.util.Optional;
 @Tag(name = "Transacciones", description = "API para gestión de transacciones bancarias")
 public class TransaccionesController {
 
-    private final TransaccionesRepository transaccionesRepository;
+    private final EstadoTransaccionesCache estadoTransacciones;
+    private final ConsultaEstadoLoteService consultaEstadoLote;
+    private final EstadoCuentaService estadoCuenta;
 
-    public TransaccionesController(TransaccionesRepository transaccionesRepository) {
-        this.transaccionesRepository = transaccionesRepository;
+    public TransaccionesController(EstadoTransaccionesCache estadoTransacciones,
+            ConsultaEstadoLoteService consultaEstadoLote, EstadoCuentaService estadoCuenta) {
+        this.estadoTransacciones = estadoTransacciones;
+        this.consultaEstadoLote = consultaEstadoLote;
+        this.estadoCuenta = estadoCuenta;
     }
 
     @Operation(summary = "Consultar estado de transacción", description = "Obtiene el estado actual y detalles de una transacción específica mediante su ID único", operationId = "consultarEstadoTransaccion")
@@ -58,9 +71,9 @@ public class TransaccionesController {
 
         log.info("Consultando estado de transacción: {}", transaccionId);
 
-        Optional<Transacciones> transaccionOpt = transaccionesRepository.findById(transaccionId);
+        Optional<TransaccionRespuestaDTO> respuesta = estadoTransacciones.consultar(transaccionId);
 
-        if (transaccionOpt.isEmpty()) {
+        if (respuesta.isEmpty()) {
             ErrorRespuestaDTO errorRespuesta = ErrorRespuestaDTO.builder()
                     .mensaje("Transacción no encontrada")
                     .transaccionId(transaccionId)
@@ -68,22 +81,100 @@ public class TransaccionesController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorRespuesta);
         }
 
-        Transacciones transaccion = transaccionOpt.get();
+        return ResponseEntity.ok(respuesta.get());
+    }
 
-        TransaccionRespuestaDTO respuesta = TransaccionRespuestaDTO.builder()
-                .transaccionId(transaccion.getId())
-                .estado(transaccion.getEstado().name())
-                .tipoTransaccion(transaccion.getTipoTransaccion().name())
-                .monto(transaccion.getMonto())
-                .fechaTransaccion(transaccion.getFechaTransaccion())
-                .descripcion(transaccion.getDescripcion())
-                .build();
+    @Operation(summary = "Consultar estado de varias transacciones", description = "Recibe un arreglo de IDs y devuelve, en streaming y en el mismo orden, el estado de cada transacción. Los IDs inexistentes se devuelven con mensajeError", operationId = "consultarEstadoLote")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estados de las transacciones", content = @Content(mediaType = "application/json", examples = @ExampleObject(name = "Consulta por lote", value = """
+                    [
+                        {
+                            "transaccionId": 12345,
+                            "estado": "COMPLETADA",
+                            "tipoTransaccion": "DEPOSITO",
+                            "monto": 150.50,
+                            "fechaTransaccion": "2025-08-11T07:10:45.123Z",
+                            "descripcion": "Depósito por transferencia externa"
+                        },
+                        {
+                            "transaccionId": 99999,
+                            "mensajeError": "Transacción no encontrada"
+                        }
+                    ]
+                    """))),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorRespuestaDTO.class)))
+    })
+    @PostMapping("/estado/lote")
+    public ResponseEntity<StreamingResponseBody> consultarEstadoLote(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "IDs de las transacciones a consultar", required = true) @RequestBody List<Long> transaccionIds) {
 
-        if (transaccion.getEstado() == Transacciones.EstadoTransaccionesEnum.ERROR) {
-            respuesta.setMensajeError("Error en el procesamiento");
+        // El tipo de retorno debe declarar StreamingResponseBody, así que el error también se escribe en streaming
+        String error = null;
+        if (transaccionIds == null || transaccionIds.isEmpty()
+                || transaccionIds.size() > consultaEstadoLote.getMaximoIds()) {
+            error = "Debe enviar entre 1 y " + consultaEstadoLote.getMaximoIds() + " IDs de transacción";
+        } else if (transaccionIds.contains(null)) {
+            error = "Los IDs de transacción no pueden ser nulos";
+        }
+        if (error != null) {
+            ErrorRespuestaDTO errorRespuesta = ErrorRespuestaDTO.builder()
+                    .mensaje(error)
+                    .build();
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(salida -> consultaEstadoLote.escribirError(errorRespuesta, salida));
         }
 
-        return ResponseEntity.ok(respuesta);
+        log.info("Consultando estado de {} transacciones", transaccionIds.size());
+
+        StreamingResponseBody cuerpo = salida -> consultaEstadoLote.escribir(transaccionIds, salida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    @Operation(summary = "Exportar estado de cuenta", description = "Devuelve en streaming, ordenados por fecha, los movimientos de la cuenta entre dos fechas (ambas inclusive): los que originó y las transferencias completadas que recibió, con su sentido (CREDITO o DEBITO), en NDJSON (una transacción por línea) o CSV", operationId = "exportarEstadoCuenta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Movimientos de la cuenta", content = {
+                    @Content(mediaType = "application/x-ndjson", examples = @ExampleObject(name = "NDJSON", value = """
+                            {"id":12345,"fechaTransaccion":"2025-08-11T07:10:45.123Z","tipoTransaccion":"DEPOSITO","sentido":"CREDITO","monto":150.50,"estado":"COMPLETADA","numeroCuentaOrigen":"2258102001","numeroCuentaDestino":null,"descripcion":"Depósito por transferencia externa"}
+                            """)),
+                    @Content(mediaType = "text/csv", examples = @ExampleObject(name = "CSV", value = """
+                            id_transaccion,fecha_transaccion,tipo_transaccion,sentido,monto,estado,numero_cuenta_origen,numero_cuenta_destino,descripcion
+                            12345,2025-08-11T07:10:45.123Z,DEPOSITO,CREDITO,150.50,COMPLETADA,2258102001,,Depósito por transferencia externa
+                            """)) }),
+            @ApiResponse(responseCode = "400", description = "Rango de fechas o formato inválido", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorRespuestaDTO.class)))
+    })
+    @GetMapping("/cuenta/{numeroCuenta}/estado-cuenta")
+    public ResponseEntity<StreamingResponseBody> exportarEstadoCuenta(
+            @Parameter(description = "Número de la cuenta", required = true, example = "2258102001") @PathVariable String numeroCuenta,
+            @Parameter(description = "Fecha inicial (inclusive)", required = true, example = "2025-08-01") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Fecha final (inclusive)", required = true, example = "2025-08-31") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @Parameter(description = "Formato de salida: ndjson o csv", example = "ndjson") @RequestParam(defaultValue = "ndjson") String formato) {
+
+        EstadoCuentaService.Formato formatoSalida = null;
+        String error = null;
+        try {
+            formatoSalida = EstadoCuentaService.Formato.valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            error = "Formato no soportado: " + formato + ". Use ndjson o csv";
+        }
+        if (hasta.isBefore(desde)) {
+            error = "La fecha hasta no puede ser anterior a la fecha desde";
+        }
+        if (error != null) {
+            ErrorRespuestaDTO errorRespuesta = ErrorRespuestaDTO.builder()
+                    .mensaje(error)
+                    .build();
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(salida -> consultaEstadoLote.escribirError(errorRespuesta, salida));
+        }
+
+        log.info("Exportando estado de cuenta {} desde {} hasta {} en {}", numeroCuenta, desde, hasta, formatoSalida);
+
+        EstadoCuentaService.Formato formatoFinal = formatoSalida;
+        MediaType tipoContenido = formatoFinal == EstadoCuentaService.Formato.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody cuerpo = salida -> estadoCuenta.escribir(numeroCuenta, desde, hasta, formatoFinal, salida);
+        return ResponseEntity.ok().contentType(tipoContenido).body(cuerpo);
     }
 
     @Operation(summary = "Verificar estado de salud del servicio", description = "Endpoint para verificar que el microservicio de transacciones está funcionando correctamente", operationId = "verificarSaludServicio")
@@ -0,0 +1,138 @@
+package com.banquito.core.bank.transaction.dinero;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Montos y saldos en centavos sobre un long: sumas, restas y comparaciones sin BigDecimal
+// ni MathContext en el camino caliente. Las operaciones fallan con ArithmeticException
+// antes que desbordar en silencio; la columna numeric(15,2) de la BD sigue siendo el
+// límite real (DineroConverter la traduce en la frontera JPA)
+@JsonSerialize(using = DineroJson.Serializador.class)
+@JsonDeserialize(using = DineroJson.Deserializador.class)
+public record Dinero(long centavos) implements Comparable<Dinero> {
+
+    public static final Dinero CERO = new Dinero(0);
+
+    public static final int ESCALA = 2;
+
+    // Dígitos del valor absoluto más largo que cabe en un long sin riesgo (sin contar decimales)
+    private static final int DIGITOS_ENTEROS_MAXIMOS = 16;
+
+    public static Dinero deCentavos(long centavos) {
+        return centavos == 0 ? CERO : new Dinero(centavos);
+    }
+
+    // Solo acepta valores exactos en centavos: 10.255 no se redondea en silencio
+    public static Dinero de(BigDecimal valor) {
+        try {
+            return deCentavos(valor.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Monto fuera de rango o con más de " + ESCALA + " decimales: " + valor);
+        }
+    }
+
+    // Convierte el texto decimal ("150.5", "-3", "0.07") directamente a centavos, sin pasar
+    // por BigDecimal. La notación exponencial, poco habitual, se delega a de(BigDecimal)
+    public static Dinero parse(String texto) {
+        int longitud = texto.length();
+        int i = 0;
+        boolean negativo = false;
+        if (longitud > 0 && (texto.charAt(0) == '-' || texto.charAt(0) == '+')) {
+            negativo = texto.charAt(0) == '-';
+            i++;
+        }
+
+        long enteros = 0;
+        int digitosEnteros = 0;
+        for (; i < longitud && esDigito(texto.charAt(i)); i++) {
+            if (++digitosEnteros > DIGITOS_ENTEROS_MAXIMOS) {
+                throw new NumberFormatException("Monto fuera de rango: " + texto);
+            }
+            enteros = enteros * 10 + (texto.charAt(i) - '0');
+        }
+
+        long fraccion = 0;
+        int digitosFraccion = 0;
+        if (i < longitud && texto.charAt(i) == '.') {
+            for (i++; i < longitud && esDigito(texto.charAt(i)); i++) {
+                int digito = texto.charAt(i) - '0';
+                if (++digitosFraccion > ESCALA) {
+                    // Se toleran ceros de relleno (10.500) pero no fracciones de centavo
+                    if (digito != 0) {
+                        throw new NumberFormatException("Monto con más de " + ESCALA + " decimales: " + texto);
+                    }
+                } else {
+                    fraccion = fraccion * 10 + digito;
+                }
+            }
+        }
+
+        if (i < longitud && (texto.charAt(i) == 'e' || texto.charAt(i) == 'E')) {
+            return de(new BigDecimal(texto));
+        }
+        if (i != longitud || digitosEnteros + digitosFraccion == 0) {
+            throw new NumberFormatException("Monto con formato inválido: " + texto);
+        }
+
+        for (; digitosFraccion < ESCALA; digitosFraccion++) {
+            fraccion *= 10;
+        }
+        long centavos = enteros * 100 + fraccion;
+        return deCentavos(negativo ? -centavos : centavos);
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return deCentavos(Math.addExact(centavos, otro.centavos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return deCentavos(Math.subtractExact(centavos, otro.centavos));
+    }
+
+    public Dinero negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+
+    public boolean esMenorQue(Dinero otro) {
+        return centavos < otro.centavos;
+    }
+
+    public boolean esPositivo() {
+        return centavos > 0;
+    }
+
+    public boolean esNegativo() {
+        return centavos < 0;
+    }
+
+    public BigDecimal aBigDecimal() {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centavos, otro.centavos);
+    }
+
+    // Siempre con dos decimales y sin notación exponencial: "150.50", "-0.07"
+    @Override
+    public String toString() {
+        long resto = Math.abs(centavos % 100);
+        StringBuilder texto = new StringBuilder(24);
+        if (centavos < 0) {
+            texto.append('-');
+        }
+        texto.append(Math.abs(centavos / 100)).append('.');
+        if (resto < 10) {
+            texto.append('0');
+        }
+        return texto.append(resto).toString();
+    }
+
+    private static boolean esDigito(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
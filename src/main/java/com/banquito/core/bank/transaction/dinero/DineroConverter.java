@@ -0,0 +1,22 @@
+package com.banquito.core.bank.transaction.dinero;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Frontera JPA: las columnas numeric(15,2) se leen y escriben como BigDecimal y el resto
+// de la aplicación trabaja con centavos. Se aplica automáticamente a todo atributo Dinero
+@Converter(autoApply = true)
+public class DineroConverter implements AttributeConverter<Dinero, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinero dinero) {
+        return dinero != null ? dinero.aBigDecimal() : null;
+    }
+
+    @Override
+    public Dinero convertToEntityAttribute(BigDecimal valor) {
+        return valor != null ? Dinero.de(valor) : null;
+    }
+}
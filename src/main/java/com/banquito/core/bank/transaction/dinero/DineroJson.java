@@ -0,0 +1,47 @@
+package com.banquito.core.bank.transaction.dinero;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+// Representación JSON de Dinero: número con dos decimales (150.50), igual que el BigDecimal
+// que se publicaba antes. Al leer se parte del texto del token, sin construir BigDecimal
+public final class DineroJson {
+
+    private DineroJson() {
+    }
+
+    public static final class Serializador extends JsonSerializer<Dinero> {
+
+        @Override
+        public void serialize(Dinero dinero, JsonGenerator generador, SerializerProvider proveedor)
+                throws IOException {
+            generador.writeNumber(dinero.toString());
+        }
+    }
+
+    public static final class Deserializador extends JsonDeserializer<Dinero> {
+
+        @Override
+        public Dinero deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                    && token != JsonToken.VALUE_STRING) {
+                return (Dinero) contexto.handleUnexpectedToken(Dinero.class, parser);
+            }
+            String texto = parser.getText().trim();
+            try {
+                return Dinero.parse(texto);
+            } catch (NumberFormatException e) {
+                throw InvalidFormatException.from(parser, e.getMessage(), texto, Dinero.class);
+            }
+        }
+    }
+}
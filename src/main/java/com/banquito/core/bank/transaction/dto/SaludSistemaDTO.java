@@ -0,0 +1,45 @@
+package com.banquito.core.bank.transaction.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resultado de las sondas de salud (base de datos, broker y pool de conexiones)")
+public class SaludSistemaDTO {
+
+    @Schema(description = "Estado agregado: DOWN si la BD o el broker no responden, DEGRADED si alguna sonda está degradada", example = "UP", allowableValues = {
+            "UP", "DEGRADED", "DOWN" })
+    private String estado;
+
+    @Schema(description = "Momento en que se ejecutaron las sondas (el resultado se reutiliza durante unos segundos)", example = "2025-08-11T07:10:45.123Z")
+    private Instant verificadoEn;
+
+    @Schema(description = "Resultado de cada sonda por nombre: bd, broker, pool")
+    private Map<String, Sonda> sondas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @Schema(description = "Resultado de una sonda")
+    public static class Sonda {
+
+        @Schema(description = "Estado de la sonda", example = "UP", allowableValues = { "UP", "DEGRADED", "DOWN" })
+        private String estado;
+
+        @Schema(description = "Duración de la sonda en milisegundos", example = "3")
+        private long latenciaMs;
+
+        @Schema(description = "Detalle o motivo del estado", example = "activas=3, inactivas=7, esperando=0, maximo=10")
+        private String detalle;
+    }
+}
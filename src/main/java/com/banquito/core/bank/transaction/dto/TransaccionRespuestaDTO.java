@@ -1,12 +1,14 @@
 package com.banquito.core.bank.transaction.dto;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.EstadoTransaccionProyeccion;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Data
@@ -24,11 +26,11 @@ public class TransaccionRespuestaDTO {
     private String estado;
 
     @Schema(description = "Tipo de transacción realizada", allowableValues = { "DEPOSITO",
-            "RETIRO" }, example = "DEPOSITO")
+            "RETIRO", "TRANSFERENCIA" }, example = "DEPOSITO")
     private String tipoTransaccion;
 
-    @Schema(description = "Monto de la transacción", example = "150.50")
-    private BigDecimal monto;
+    @Schema(description = "Monto de la transacción", type = "number", example = "150.50")
+    private Dinero monto;
 
     @Schema(description = "Fecha y hora en que se realizó la transacción", example = "2025-08-11T07:10:45.123Z")
     private Instant fechaTransaccion;
@@ -38,4 +40,34 @@ public class TransaccionRespuestaDTO {
 
     @Schema(description = "Mensaje de error en caso de que el estado sea ERROR", example = "Saldo insuficiente")
     private String mensajeError;
+
+    public static TransaccionRespuestaDTO desde(Transacciones transaccion) {
+        TransaccionRespuestaDTO respuesta = TransaccionRespuestaDTO.builder()
+                .transaccionId(transaccion.getId())
+                .estado(transaccion.getEstado().name())
+                .tipoTransaccion(transaccion.getTipoTransaccion().name())
+                .monto(transaccion.getMonto())
+                .fechaTransaccion(transaccion.getFechaTransaccion())
+                .descripcion(transaccion.getDescripcion())
+                .build();
+
+        if (transaccion.getEstado() == Transacciones.EstadoTransaccionesEnum.ERROR) {
+            respuesta.setMensajeError("Error en el procesamiento");
+        }
+        return respuesta;
+    }
+
+    public static TransaccionRespuestaDTO desde(EstadoTransaccionProyeccion estado) {
+        return TransaccionRespuestaDTO.builder()
+                .transaccionId(estado.id())
+                .estado(estado.estado().name())
+                .tipoTransaccion(estado.tipoTransaccion().name())
+                .monto(estado.monto())
+                .fechaTransaccion(estado.fechaTransaccion())
+                .descripcion(estado.descripcion())
+                .mensajeError(estado.estado() == Transacciones.EstadoTransaccionesEnum.ERROR
+                        ? "Error en el procesamiento"
+                        : null)
+                .build();
+    }
 }
@@ -1,12 +1,12 @@
 package com.banquito.core.bank.transaction.dto;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -26,12 +26,15 @@ public class TransaccionesSolicitudDTO {
             "TRANSFERENCIA" }, example = "DEPOSITO", required = true)
     private String tipoTransaccion;
 
-    @Schema(description = "Monto de la transacción (debe ser positivo)", example = "150.50", minimum = "0.01", required = true)
-    private BigDecimal monto;
+    @Schema(description = "Monto de la transacción (debe ser positivo)", example = "150.50", type = "number", minimum = "0.01", required = true)
+    private Dinero monto;
 
     @Schema(description = "Descripción o concepto de la transacción", example = "Depósito por transferencia externa", maxLength = 150)
     private String descripcion;
 
     @Schema(description = "Timestamp de cuando se creó la solicitud", example = "2025-08-11T12:30:45")
     private LocalDateTime timestamp;
+
+    @Schema(description = "Clave única de la solicitud para no ejecutarla dos veces; si falta se usa el JMSMessageID", example = "3f2c9a7e-1b4d-4e8a-9c1f-6a2b8d0e5f71", maxLength = 100)
+    private String claveIdempotencia;
 }
@@ -0,0 +1,90 @@
+package com.banquito.core.bank.transaction.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Motor de ejecución por carriles: cada número de cuenta se asigna por hash a un
+// carril de un solo hilo. Las operaciones de una misma cuenta se ejecutan en orden
+// dentro de su carril y las de cuentas distintas en paralelo, sin bloqueo de fila en BD
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.carriles.habilitado", havingValue = "true")
+public class CarrilesCuentaExecutor {
+
+    @Value("${transacciones.carriles.cantidad:8}")
+    private int cantidadCarriles;
+
+    @Value("${transacciones.carriles.reintentos-conflicto:3}")
+    private int reintentosConflicto;
+
+    private ExecutorService[] carriles;
+
+    @PostConstruct
+    void iniciar() {
+        carriles = new ExecutorService[cantidadCarriles];
+        for (int i = 0; i < cantidadCarriles; i++) {
+            final int indice = i;
+            carriles[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread hilo = new Thread(r, "carril-cuenta-" + indice);
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        log.info("MS2 EJECUTOR - Carriles por cuenta iniciados: {}", cantidadCarriles);
+    }
+
+    @PreDestroy
+    void detener() {
+        for (ExecutorService carril : carriles) {
+            carril.shutdown();
+        }
+    }
+
+    // Ejecuta la operación en el carril de la cuenta y espera su resultado
+    public <T> T ejecutar(String numeroCuenta, Supplier<T> operacion) {
+        Future<T> resultado = carriles[carril(numeroCuenta)].submit(() -> ejecutarConReintentos(operacion));
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el carril de la cuenta " + numeroCuenta, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    int carril(String numeroCuenta) {
+        int hash = numeroCuenta.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), cantidadCarriles);
+    }
+
+    // Dentro de la instancia el carril serializa la cuenta; un conflicto de versión solo
+    // puede venir de otro escritor (otra instancia o MS1), así que se reintenta en el carril
+    private <T> T ejecutarConReintentos(Supplier<T> operacion) {
+        for (int intento = 1;; intento++) {
+            try {
+                return operacion.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (intento > reintentosConflicto) {
+                    throw e;
+                }
+                log.warn("MS2 EJECUTOR - Conflicto de versión en carril, reintento {}/{}: {}", intento,
+                        reintentosConflicto, e.getMessage());
+            }
+        }
+    }
+}
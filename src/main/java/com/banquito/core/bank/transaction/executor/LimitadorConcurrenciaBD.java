@@ -0,0 +1,60 @@
+package com.banquito.core.bank.transaction.executor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Limita cuántos consumidores ejecutan trabajo de BD a la vez. Con hilos virtuales la
+// concurrencia de los listeners puede superar ampliamente el pool de Hikari; sin este
+// límite la cola simplemente se movería a la espera de conexiones dentro de Hikari
+@Component
+@Slf4j
+public class LimitadorConcurrenciaBD {
+
+    private final Semaphore permisos;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+
+    public LimitadorConcurrenciaBD(@Value("${transacciones.listener.limite-bd:10}") int limite,
+            MeterRegistry meterRegistry) {
+        this.permisos = new Semaphore(limite, true);
+
+        Gauge.builder("transacciones.listener.en_vuelo", enVuelo, AtomicInteger::get)
+                .description("Mensajes en procesamiento por los listeners, incluidos los que esperan conexión")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.listener.esperando_conexion", esperando, AtomicInteger::get)
+                .description("Mensajes esperando un permiso de conexión a BD")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.listener.permisos_disponibles", permisos, Semaphore::availablePermits)
+                .register(meterRegistry);
+        log.info("MS2 EJECUTOR - Límite de concurrencia contra BD: {}", limite);
+    }
+
+    public <T> T ejecutar(Supplier<T> operacion) {
+        enVuelo.incrementAndGet();
+        try {
+            esperando.incrementAndGet();
+            try {
+                permisos.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando un permiso de conexión a BD", e);
+            } finally {
+                esperando.decrementAndGet();
+            }
+            try {
+                return operacion.get();
+            } finally {
+                permisos.release();
+            }
+        } finally {
+            enVuelo.decrementAndGet();
+        }
+    }
+}
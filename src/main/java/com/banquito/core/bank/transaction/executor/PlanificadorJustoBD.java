@@ -0,0 +1,204 @@
+package com.banquito.core.bank.transaction.executor;
+
+import com.banquito.core.bank.transaction.model.Transacciones;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Reemplaza la cola FIFO de LimitadorConcurrenciaBD por un reparto ponderado entre tipos de
+// transacción. Los permisos siguen siendo limite-bd (lo que puede atender el pool de Hikari);
+// cuando se libera uno, se entrega al tipo con menor "pasada" (stride scheduling: cada turno
+// atendido suma 1/peso), así un atasco de depósitos de nómina no deja sin turno a los
+// retiros. Dentro de cada tipo se atiende primero la mayor prioridad JMS y luego por llegada
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.planificador.habilitado", havingValue = "true")
+public class PlanificadorJustoBD {
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final Map<Transacciones.TipoTransaccionEnum, Clase> clases =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+    private int permisosLibres;
+    private long secuencia;
+    // Pasada del último turno entregado: una clase que vuelve de estar ociosa parte desde
+    // aquí y no acumula crédito por el tiempo sin mensajes
+    private double pasadaGlobal;
+
+    public PlanificadorJustoBD(@Value("${transacciones.listener.limite-bd:10}") int limite,
+            @Value("${transacciones.planificador.peso.deposito:1}") int pesoDeposito,
+            @Value("${transacciones.planificador.peso.retiro:3}") int pesoRetiro,
+            @Value("${transacciones.planificador.peso.transferencia:2}") int pesoTransferencia,
+            MeterRegistry meterRegistry) {
+        this.permisosLibres = limite;
+        clases.put(Transacciones.TipoTransaccionEnum.DEPOSITO,
+                new Clase(Transacciones.TipoTransaccionEnum.DEPOSITO, pesoDeposito, meterRegistry));
+        clases.put(Transacciones.TipoTransaccionEnum.RETIRO,
+                new Clase(Transacciones.TipoTransaccionEnum.RETIRO, pesoRetiro, meterRegistry));
+        clases.put(Transacciones.TipoTransaccionEnum.TRANSFERENCIA,
+                new Clase(Transacciones.TipoTransaccionEnum.TRANSFERENCIA, pesoTransferencia, meterRegistry));
+
+        Gauge.builder("transacciones.planificador.permisos_disponibles", this, PlanificadorJustoBD::permisosLibres)
+                .description("Permisos de BD sin asignar")
+                .register(meterRegistry);
+        log.info("MS2 EJECUTOR - Planificador justo contra BD: limite={}, pesos DEPOSITO={} RETIRO={} TRANSFERENCIA={}",
+                limite, pesoDeposito, pesoRetiro, pesoTransferencia);
+    }
+
+    // prioridad es la JMSPriority del mensaje (0-9, 4 por defecto)
+    public <T> T ejecutar(Transacciones.TipoTransaccionEnum tipo, int prioridad, Supplier<T> operacion) {
+        Clase clase = clases.get(tipo);
+        long inicio = System.nanoTime();
+        adquirir(clase, prioridad);
+        clase.tiempoEspera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        clase.atendidos.increment();
+        try {
+            return operacion.get();
+        } finally {
+            liberar();
+        }
+    }
+
+    private void adquirir(Clase clase, int prioridad) {
+        candado.lock();
+        try {
+            // Sin nadie esperando no hay nada que repartir
+            if (permisosLibres > 0 && !hayEspera()) {
+                permisosLibres--;
+                avanzar(clase);
+                return;
+            }
+            Turno turno = new Turno(prioridad, secuencia++, candado.newCondition());
+            if (clase.cola.isEmpty()) {
+                clase.pasada = Math.max(clase.pasada, pasadaGlobal);
+            }
+            clase.cola.add(turno);
+            clase.enCola.incrementAndGet();
+            try {
+                while (!turno.concedido) {
+                    turno.condicion.await();
+                }
+            } catch (InterruptedException e) {
+                if (!clase.cola.remove(turno)) {
+                    // El permiso ya fue entregado a este turno: se devuelve
+                    liberarBloqueado();
+                } else {
+                    clase.enCola.decrementAndGet();
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando un permiso de conexión a BD", e);
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private void liberar() {
+        candado.lock();
+        try {
+            liberarBloqueado();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // El permiso pasa directamente al siguiente turno, sin volver a quedar libre
+    private void liberarBloqueado() {
+        Clase siguiente = null;
+        for (Clase clase : clases.values()) {
+            if (!clase.cola.isEmpty() && (siguiente == null || clase.pasada < siguiente.pasada)) {
+                siguiente = clase;
+            }
+        }
+        if (siguiente == null) {
+            permisosLibres++;
+            return;
+        }
+        Turno turno = siguiente.cola.poll();
+        siguiente.enCola.decrementAndGet();
+        avanzar(siguiente);
+        turno.concedido = true;
+        turno.condicion.signal();
+    }
+
+    private void avanzar(Clase clase) {
+        pasadaGlobal = clase.pasada;
+        clase.pasada += clase.paso;
+    }
+
+    private boolean hayEspera() {
+        for (Clase clase : clases.values()) {
+            if (!clase.cola.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double permisosLibres() {
+        candado.lock();
+        try {
+            return permisosLibres;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private static final class Turno {
+        private final int prioridad;
+        private final long orden;
+        private final Condition condicion;
+        private boolean concedido;
+
+        private Turno(int prioridad, long orden, Condition condicion) {
+            this.prioridad = prioridad;
+            this.orden = orden;
+            this.condicion = condicion;
+        }
+    }
+
+    private static final class Clase {
+        private static final Comparator<Turno> ORDEN = Comparator.<Turno>comparingInt(t -> -t.prioridad)
+                .thenComparingLong(t -> t.orden);
+
+        private final double paso;
+        private final PriorityQueue<Turno> cola = new PriorityQueue<>(ORDEN);
+        private final AtomicInteger enCola = new AtomicInteger();
+        private final Timer tiempoEspera;
+        private final Counter atendidos;
+        private double pasada;
+
+        private Clase(Transacciones.TipoTransaccionEnum tipo, int peso, MeterRegistry meterRegistry) {
+            if (peso <= 0) {
+                throw new IllegalArgumentException("El peso del planificador debe ser positivo: " + tipo + "=" + peso);
+            }
+            this.paso = 1.0 / peso;
+            this.tiempoEspera = Timer.builder("transacciones.planificador.espera")
+                    .description("Espera por un permiso de BD en el planificador")
+                    .tag("clase", tipo.name())
+                    .register(meterRegistry);
+            this.atendidos = Counter.builder("transacciones.planificador.atendidos")
+                    .description("Mensajes que recibieron permiso de BD")
+                    .tag("clase", tipo.name())
+                    .register(meterRegistry);
+            Gauge.builder("transacciones.planificador.cola", enCola, AtomicInteger::get)
+                    .description("Mensajes esperando permiso de BD")
+                    .tag("clase", tipo.name())
+                    .register(meterRegistry);
+        }
+    }
+}
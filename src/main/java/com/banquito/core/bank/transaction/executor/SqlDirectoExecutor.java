@@ -0,0 +1,168 @@
+package com.banquito.core.bank.transaction.executor;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
+import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
+import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.BandejaSalidaResultados;
+import com.banquito.core.bank.transaction.service.EscrituraDiferidaSaldos;
+import com.banquito.core.bank.transaction.service.EstadoTransaccionesCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Ruta rápida: aplica el movimiento y registra la transacción final con una sola
+// sentencia SQL (CTE de PostgreSQL) en auto-commit, es decir, un único viaje a la BD
+// por mensaje en lugar de INSERT + SELECT FOR UPDATE + UPDATE + UPDATE. El saldo solo
+// cambia si la cuenta está ACTIVA y tiene fondos; si no, se inserta la fila en ERROR.
+// Una clave de idempotencia repetida viola la restricción única y hace fallar la
+// sentencia completa, incluido el UPDATE del saldo
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.sql-directo.habilitado", havingValue = "true")
+public class SqlDirectoExecutor {
+
+    private static final String SQL_EJECUTAR = """
+            WITH actualizada AS (
+                UPDATE account.cuentas_clientes
+                   SET saldo_disponible = saldo_disponible + :delta,
+                       saldo_contable = saldo_contable + :delta,
+                       version = version + 1
+                 WHERE numero_cuenta = :numeroCuenta
+                   AND estado = 'ACTIVO'
+                   AND saldo_disponible + :delta >= 0
+             RETURNING saldo_disponible
+            ), insertada AS (
+                INSERT INTO account.transacciones (id_transaccion, numero_cuenta_origen, numero_cuenta_destino,
+                       tipo_transaccion, monto, descripcion, fecha_transaccion, estado, clave_idempotencia, version)
+                SELECT CAST(:id AS bigint), CAST(:numeroCuenta AS varchar), CAST(:numeroCuentaDestino AS varchar), CAST(:tipo AS varchar),
+                       CAST(:monto AS numeric), CAST(:descripcion AS varchar), now(),
+                       CASE WHEN EXISTS (SELECT 1 FROM actualizada) THEN 'COMPLETADA' ELSE 'ERROR' END,
+                       CAST(:claveIdempotencia AS varchar), 0
+             RETURNING id_transaccion, estado, fecha_transaccion
+            )%s
+            SELECT i.id_transaccion, i.estado, i.fecha_transaccion, a.saldo_disponible AS nuevo_saldo
+              FROM insertada i
+              LEFT JOIN actualizada a ON true
+            """;
+
+    // Solo cuando el UPDATE no aplicó. Una CTE de lectura en la misma sentencia vería la foto
+    // del inicio, no la versión de la fila que el UPDATE evaluó tras esperar su bloqueo
+    private static final String SQL_CUENTA = """
+            SELECT estado, saldo_disponible
+              FROM account.cuentas_clientes
+             WHERE numero_cuenta = :numeroCuenta
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EstadoTransaccionesCache estadoTransacciones;
+    // Solo presente con transacciones.escritura-diferida.habilitado=true
+    private final EscrituraDiferidaSaldos escrituraDiferida;
+    private final GeneradorIdTemporal generadorId;
+    // Solo presente con transacciones.bandeja-salida.habilitado=true
+    private final BandejaSalidaResultados bandejaSalida;
+    private final TransaccionesMetricas metricas;
+    private final String sqlEjecutar;
+
+    public SqlDirectoExecutor(NamedParameterJdbcTemplate jdbcTemplate, EstadoTransaccionesCache estadoTransacciones,
+            ObjectProvider<EscrituraDiferidaSaldos> escrituraDiferida, GeneradorIdTemporal generadorId,
+            ObjectProvider<BandejaSalidaResultados> bandejaSalida, TransaccionesMetricas metricas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricas = metricas;
+        this.estadoTransacciones = estadoTransacciones;
+        this.generadorId = generadorId;
+        this.escrituraDiferida = escrituraDiferida.getIfAvailable();
+        this.bandejaSalida = bandejaSalida.getIfAvailable();
+        // Con bandeja de salida el evento se inserta en la misma sentencia que la transacción
+        this.sqlEjecutar = SQL_EJECUTAR.formatted(
+                this.bandejaSalida != null ? BandejaSalidaResultados.CTE_EVENTO_SQL_DIRECTO : "");
+    }
+
+    // Las cuentas calientes de escritura diferida siguen por TransaccionesService
+    public boolean admite(TransaccionesSolicitudDTO dto) {
+        return ("DEPOSITO".equals(dto.getTipoTransaccion()) || "RETIRO".equals(dto.getTipoTransaccion()))
+                && (escrituraDiferida == null || !escrituraDiferida.esCuentaCaliente(dto.getNumeroCuentaOrigen()));
+    }
+
+    public Transacciones ejecutar(TransaccionesSolicitudDTO dto) {
+        Transacciones.TipoTransaccionEnum tipo = Transacciones.TipoTransaccionEnum.valueOf(dto.getTipoTransaccion());
+        Dinero delta = tipo == Transacciones.TipoTransaccionEnum.RETIRO ? dto.getMonto().negar() : dto.getMonto();
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("id", generadorId.siguiente())
+                .addValue("numeroCuenta", dto.getNumeroCuentaOrigen())
+                .addValue("numeroCuentaDestino", dto.getNumeroCuentaDestino())
+                .addValue("tipo", tipo.name())
+                .addValue("monto", dto.getMonto().aBigDecimal())
+                .addValue("descripcion", dto.getDescripcion())
+                .addValue("claveIdempotencia", dto.getClaveIdempotencia())
+                .addValue("delta", delta.aBigDecimal());
+        // El orden de publicación del evento no es este ID: lo asigna la BD en el INSERT del
+        // evento, que corre después de que el UPDATE obtuvo el bloqueo de la fila
+        if (bandejaSalida != null) {
+            parametros.addValue("idEvento", bandejaSalida.siguienteId());
+        }
+
+        // Sin transacción Spring activa: la sentencia se ejecuta en auto-commit
+        long inicio = System.nanoTime();
+        Transacciones transaccion = jdbcTemplate.queryForObject(sqlEjecutar, parametros, (rs, rowNum) -> {
+            Transacciones ejecutada = Transacciones.builder()
+                    .id(rs.getLong("id_transaccion"))
+                    .numeroCuentaOrigen(dto.getNumeroCuentaOrigen())
+                    .numeroCuentaDestino(dto.getNumeroCuentaDestino())
+                    .tipoTransaccion(tipo)
+                    .monto(dto.getMonto())
+                    .descripcion(dto.getDescripcion())
+                    .claveIdempotencia(dto.getClaveIdempotencia())
+                    .fechaTransaccion(rs.getObject("fecha_transaccion", OffsetDateTime.class).toInstant())
+                    .estado(Transacciones.EstadoTransaccionesEnum.valueOf(rs.getString("estado")))
+                    .version(0L)
+                    .build();
+            if (ejecutada.getEstado() == Transacciones.EstadoTransaccionesEnum.COMPLETADA) {
+                // Saldos de la fila que devolvió el UPDATE
+                Dinero nuevoSaldo = Dinero.de(rs.getBigDecimal("nuevo_saldo"));
+                log.info("{} ejecutado (SQL directo) - Cuenta: {}, Saldo anterior: {}, Monto: {}, Nuevo saldo: {}",
+                        tipo, dto.getNumeroCuentaOrigen(), nuevoSaldo.restar(delta), dto.getMonto(), nuevoSaldo);
+            }
+            return ejecutada;
+        });
+        // Auto-commit: la fila ya está confirmada
+        metricas.registrarCommit(tipo, inicio);
+        estadoTransacciones.actualizar(transaccion);
+
+        if (transaccion.getEstado() != Transacciones.EstadoTransaccionesEnum.COMPLETADA) {
+            throw errorDeNegocio(dto);
+        }
+        return transaccion;
+    }
+
+    // La fila ERROR ya quedó registrada; se lanza la misma excepción que la ruta JPA. El motivo
+    // sale de una lectura posterior al commit: si la cuenta cambió otra vez desde el UPDATE y
+    // hoy sí admitiría el movimiento, el único motivo posible sigue siendo la falta de fondos
+    private RuntimeException errorDeNegocio(TransaccionesSolicitudDTO dto) {
+        List<Map<String, Object>> cuenta = jdbcTemplate.queryForList(SQL_CUENTA,
+                new MapSqlParameterSource("numeroCuenta", dto.getNumeroCuentaOrigen()));
+        if (cuenta.isEmpty()) {
+            return new CuentaNoEncontradaException("Cuenta no encontrada con número: " + dto.getNumeroCuentaOrigen());
+        }
+        Object estadoCuenta = cuenta.get(0).get("estado");
+        if (!"ACTIVO".equals(estadoCuenta)) {
+            return new TransaccionException(String.format("La cuenta %s no está activa. Estado actual: %s",
+                    dto.getNumeroCuentaOrigen(), estadoCuenta));
+        }
+        return new SaldoInsuficienteException(String.format("Saldo insuficiente al ejecutar retiro. Saldo: %s, Monto: %s",
+                Dinero.de((BigDecimal) cuenta.get(0).get("saldo_disponible")), dto.getMonto()));
+    }
+}
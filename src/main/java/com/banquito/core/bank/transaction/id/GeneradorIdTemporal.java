@@ -0,0 +1,71 @@
+package com.banquito.core.bank.transaction.id;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// IDs de 64 bits ordenados por tiempo, estilo Snowflake: 41 bits de milisegundos desde
+// EPOCA, 10 bits de nodo y 12 bits de secuencia. Se asignan en memoria, sin viaje a la BD,
+// así que Hibernate puede agrupar los INSERT en lotes JDBC y el ID se conoce antes del flush.
+// El reloj lógico nunca retrocede: si el reloj del sistema vuelve atrás o se agotan los 4096
+// IDs de un milisegundo, se continúa desde el último ID entregado
+public final class GeneradorIdTemporal {
+
+    // 2025-01-01T00:00:00Z
+    public static final long EPOCA = 1735689600000L;
+    public static final int NODO_MAXIMO = (1 << 10) - 1;
+    // Holgura al acotar una búsqueda por el instante del ID: la fecha_transaccion la fija otro
+    // reloj (el de la BD o el de otra instancia) y puede diferir unos minutos
+    public static final Duration MARGEN_FECHA = Duration.ofMinutes(5);
+
+    // Los IDs IDENTITY previos quedan muy por debajo de este valor (2^40), que equivale a
+    // unos cuatro minutos después de EPOCA
+    private static final long MINIMO_TEMPORAL = 1L << 40;
+
+    private static final int BITS_SECUENCIA = 12;
+    private static final int BITS_NODO_Y_SECUENCIA = 22;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+
+    private final long nodo;
+    private final LongSupplier reloj;
+    // (milisegundo << BITS_SECUENCIA) | secuencia del último ID entregado
+    private final AtomicLong ultimo = new AtomicLong();
+
+    public GeneradorIdTemporal(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    GeneradorIdTemporal(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo > NODO_MAXIMO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + NODO_MAXIMO + ": " + nodo);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    public long siguiente() {
+        long ahora = (reloj.getAsLong() - EPOCA) << BITS_SECUENCIA;
+        // anterior + 1 desborda la secuencia hacia el milisegundo siguiente
+        long estado = ultimo.accumulateAndGet(ahora, (anterior, actual) -> Math.max(anterior + 1, actual));
+        long milisegundos = estado >>> BITS_SECUENCIA;
+        return (milisegundos << BITS_NODO_Y_SECUENCIA) | (nodo << BITS_SECUENCIA) | (estado & MASCARA_SECUENCIA);
+    }
+
+    public int getNodo() {
+        return (int) nodo;
+    }
+
+    // Indica si el ID lo emitió este generador y no la columna IDENTITY anterior
+    public static boolean esTemporal(long id) {
+        return id >= MINIMO_TEMPORAL;
+    }
+
+    public static Instant instanteDe(long id) {
+        return Instant.ofEpochMilli((id >>> BITS_NODO_Y_SECUENCIA) + EPOCA);
+    }
+
+    public static int nodoDe(long id) {
+        return (int) ((id >>> BITS_SECUENCIA) & NODO_MAXIMO);
+    }
+}
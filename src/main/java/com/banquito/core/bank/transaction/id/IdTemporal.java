@@ -0,0 +1,15 @@
+package com.banquito.core.bank.transaction.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marca el ID de una entidad para asignarlo con GeneradorIdTemporal
+@IdGeneratorType(IdTemporalGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface IdTemporal {
+}
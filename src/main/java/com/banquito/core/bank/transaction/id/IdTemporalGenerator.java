@@ -0,0 +1,32 @@
+package com.banquito.core.bank.transaction.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+
+// Puente entre Hibernate y el GeneradorIdTemporal de Spring, que GeneracionIdConfig publica
+// en las propiedades de Hibernate: la ruta JPA y las inserciones JDBC comparten así la misma
+// instancia y no pueden repetir IDs del nodo
+public class IdTemporalGenerator implements IdentifierGenerator {
+
+    public static final String PROPIEDAD_GENERADOR = "transacciones.id.generador";
+
+    private final GeneradorIdTemporal generador;
+
+    public IdTemporalGenerator(IdTemporal anotacion, Member miembro, CustomIdGeneratorCreationContext contexto) {
+        Object generador = contexto.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(PROPIEDAD_GENERADOR);
+        if (!(generador instanceof GeneradorIdTemporal)) {
+            throw new IllegalStateException("Falta la propiedad de Hibernate " + PROPIEDAD_GENERADOR);
+        }
+        this.generador = (GeneradorIdTemporal) generador;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generador.siguiente();
+    }
+}
@@ -0,0 +1,41 @@
+package com.banquito.core.bank.transaction.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// AsyncAppender de Logback que cuenta los eventos descartados. Con neverBlock=true el
+// hilo del listener nunca espera a la consola: si la cola está llena el evento se pierde,
+// y por debajo del umbral de descarte se pierden los eventos TRACE/DEBUG/INFO. El conteo
+// es aproximado bajo contención porque la cola interna no es accesible desde aquí
+public class AsyncAppenderConDescartes extends AsyncAppender {
+
+    private static final AtomicLong DESCARTADOS = new AtomicLong();
+
+    public static long descartados() {
+        return DESCARTADOS.get();
+    }
+
+    @Override
+    protected void append(ILoggingEvent evento) {
+        if (getRemainingCapacity() < getDiscardingThreshold() && isDiscardable(evento)) {
+            DESCARTADOS.incrementAndGet();
+            return;
+        }
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            DESCARTADOS.incrementAndGet();
+            return;
+        }
+        super.append(evento);
+    }
+
+    @Override
+    public void stop() {
+        long descartados = DESCARTADOS.get();
+        if (descartados > 0) {
+            addWarn("Eventos de log descartados por cola llena: " + descartados);
+        }
+        super.stop();
+    }
+}
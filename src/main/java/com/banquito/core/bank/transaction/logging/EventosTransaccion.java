@@ -0,0 +1,45 @@
+package com.banquito.core.bank.transaction.logging;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Un único evento estructurado por transacción (logger transacciones.eventos). Los campos
+// van como pares clave-valor para el formato JSON del perfil prod y también en el mensaje
+// para el patrón de consola habitual
+@Component
+public class EventosTransaccion {
+
+    private static final Logger EVENTOS = LoggerFactory.getLogger("transacciones.eventos");
+
+    public EventosTransaccion(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("logging.eventos.descartados", AsyncAppenderConDescartes.class,
+                clase -> AsyncAppenderConDescartes.descartados())
+                .description("Eventos de log descartados por el appender asíncrono")
+                .register(meterRegistry);
+    }
+
+    public void registrar(Long transaccionId, String numeroCuenta, Transacciones.TipoTransaccionEnum tipo,
+            Dinero monto, String resultado, String motivo, long inicioNanos) {
+        if (!EVENTOS.isInfoEnabled()) {
+            return;
+        }
+        long latenciaMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicioNanos);
+        EVENTOS.atInfo()
+                .addKeyValue("transaccionId", transaccionId)
+                .addKeyValue("cuenta", numeroCuenta)
+                .addKeyValue("tipo", tipo)
+                .addKeyValue("monto", monto)
+                .addKeyValue("resultado", resultado)
+                .addKeyValue("motivo", motivo)
+                .addKeyValue("latenciaUs", latenciaMicros)
+                .log("Transacción id={} cuenta={} tipo={} monto={} resultado={} motivo={} latenciaUs={}",
+                        transaccionId, numeroCuenta, tipo, monto, resultado, motivo, latenciaMicros);
+    }
+}
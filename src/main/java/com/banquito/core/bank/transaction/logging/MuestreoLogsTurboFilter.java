@@ -0,0 +1,48 @@
+package com.banquito.core.bank.transaction.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deja pasar 1 de cada N eventos por debajo de WARN de los loggers bajo el prefijo
+// (las líneas por paso de consumidor y servicio). Se evalúa antes de crear el evento,
+// así que los descartados no asignan memoria ni formatean argumentos. WARN/ERROR y el
+// logger excluido (evento estructurado por transacción) pasan siempre
+public class MuestreoLogsTurboFilter extends TurboFilter {
+
+    private final AtomicLong contador = new AtomicLong();
+    private String prefijo = "com.banquito";
+    private String excluido = "transacciones.eventos";
+    private int unoDe = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+            Throwable t) {
+        if (!isStarted() || level == null || level.isGreaterOrEqual(Level.WARN)
+                || !logger.getName().startsWith(prefijo) || logger.getName().startsWith(excluido)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Solo cuentan los eventos que el nivel configurado dejaría pasar (isEnabledFor
+        // volvería a invocar a este filtro)
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return contador.getAndIncrement() % unoDe == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setPrefijo(String prefijo) {
+        this.prefijo = prefijo;
+    }
+
+    public void setExcluido(String excluido) {
+        this.excluido = excluido;
+    }
+
+    public void setUnoDe(int unoDe) {
+        this.unoDe = Math.max(1, unoDe);
+    }
+}
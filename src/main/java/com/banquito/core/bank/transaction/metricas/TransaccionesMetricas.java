@@ -0,0 +1,204 @@
+package com.banquito.core.bank.transaction.metricas;
+
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Métricas del camino de ejecución: espera del bloqueo de cuenta, actualización de
+// saldo, commit y latencia de extremo a extremo por tipo, resultados por estado y
+// excepción, y saturación de listeners y del pool de Hikari. Los medidores por tipo y
+// estado se crean una sola vez para no buscarlos en el registro en cada mensaje
+@Component
+@Slf4j
+public class TransaccionesMetricas {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<JmsListenerEndpointRegistry> registroListeners;
+    private final ObjectProvider<DataSource> dataSource;
+    private final Timer esperaBloqueo;
+    // [lado][orden]: lado 0=origen 1=destino, orden 0=primera 1=segunda cuenta bloqueada
+    private final Timer[][] esperaBloqueoTransferencia = new Timer[2][2];
+    private final Map<Transacciones.TipoTransaccionEnum, Timer> actualizacionSaldo =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+    private final Map<Transacciones.TipoTransaccionEnum, Timer> commit =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+    private final Map<Transacciones.TipoTransaccionEnum, Timer> procesamiento =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+    private final Map<Transacciones.TipoTransaccionEnum, Timer> extremoAExtremo =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+    private final Map<Transacciones.TipoTransaccionEnum, Map<Transacciones.EstadoTransaccionesEnum, Counter>> resultados =
+            new EnumMap<>(Transacciones.TipoTransaccionEnum.class);
+
+    public TransaccionesMetricas(MeterRegistry meterRegistry,
+            ObjectProvider<JmsListenerEndpointRegistry> registroListeners, ObjectProvider<DataSource> dataSource) {
+        this.meterRegistry = meterRegistry;
+        this.registroListeners = registroListeners;
+        this.dataSource = dataSource;
+        this.esperaBloqueo = Timer.builder("transacciones.bloqueo.espera")
+                .description("Tiempo esperando el SELECT ... FOR UPDATE de la cuenta")
+                .register(meterRegistry);
+        for (int lado = 0; lado < 2; lado++) {
+            for (int orden = 0; orden < 2; orden++) {
+                esperaBloqueoTransferencia[lado][orden] = Timer.builder("transacciones.transferencia.bloqueo.espera")
+                        .description("Espera del FOR UPDATE de cada cuenta de una transferencia; la segunda "
+                                + "se espera con la primera ya bloqueada")
+                        .tag("lado", lado == 0 ? "origen" : "destino")
+                        .tag("orden", orden == 0 ? "primera" : "segunda")
+                        .register(meterRegistry);
+            }
+        }
+
+        for (Transacciones.TipoTransaccionEnum tipo : Transacciones.TipoTransaccionEnum.values()) {
+            actualizacionSaldo.put(tipo, Timer.builder("transacciones.saldo.actualizacion")
+                    .description("Cálculo y actualización del saldo con la cuenta ya bloqueada")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+            commit.put(tipo, Timer.builder("transacciones.commit")
+                    .description("Flush y commit de la transacción de BD")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+            procesamiento.put(tipo, Timer.builder("transacciones.procesamiento")
+                    .description("Desde la recepción del mensaje hasta el commit")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+            extremoAExtremo.put(tipo, Timer.builder("transacciones.extremo_a_extremo")
+                    .description("Desde el envío del mensaje por MS1 (JMSTimestamp) hasta el commit")
+                    .tag("tipo", tipo.name())
+                    .register(meterRegistry));
+
+            Map<Transacciones.EstadoTransaccionesEnum, Counter> porEstado =
+                    new EnumMap<>(Transacciones.EstadoTransaccionesEnum.class);
+            for (Transacciones.EstadoTransaccionesEnum estado : Transacciones.EstadoTransaccionesEnum.values()) {
+                porEstado.put(estado, Counter.builder("transacciones.resultado")
+                        .description("Transacciones ejecutadas por estado final")
+                        .tag("tipo", tipo.name())
+                        .tag("estado", estado.name())
+                        .register(meterRegistry));
+            }
+            resultados.put(tipo, porEstado);
+        }
+    }
+
+    public <T> T medirEsperaBloqueo(Supplier<T> bloqueo) {
+        return esperaBloqueo.record(bloqueo);
+    }
+
+    public <T> T medirEsperaBloqueoTransferencia(boolean origen, boolean primera, Supplier<T> bloqueo) {
+        return esperaBloqueoTransferencia[origen ? 0 : 1][primera ? 0 : 1].record(bloqueo);
+    }
+
+    public void registrarActualizacionSaldo(Transacciones.TipoTransaccionEnum tipo, long inicioNanos) {
+        actualizacionSaldo.get(tipo).record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Mide desde beforeCommit (antes del flush de Hibernate) hasta afterCommit
+    public void medirCommit(Transacciones.TipoTransaccionEnum tipo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long inicio;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inicio = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                commit.get(tipo).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    // Ejecución SQL directa: la sentencia corre en auto-commit, así que su duración (con la espera
+    // del bloqueo de la fila) es la del commit; sin esto el autoescalado no vería esa ruta
+    public void registrarCommit(Transacciones.TipoTransaccionEnum tipo, long inicioNanos) {
+        commit.get(tipo).record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // enviadoMillis es el JMSTimestamp del productor; depende de que los relojes estén sincronizados
+    public void registrarProcesamiento(Transacciones.TipoTransaccionEnum tipo, long inicioNanos, long enviadoMillis) {
+        procesamiento.get(tipo).record(System.nanoTime() - inicioNanos, TimeUnit.NANOSECONDS);
+        if (enviadoMillis > 0) {
+            extremoAExtremo.get(tipo).record(Math.max(0, System.currentTimeMillis() - enviadoMillis),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void registrarResultado(Transacciones.TipoTransaccionEnum tipo, Transacciones.EstadoTransaccionesEnum estado) {
+        resultados.get(tipo).get(estado).increment();
+    }
+
+    public void registrarError(String tipo, Throwable error) {
+        meterRegistry.counter("transacciones.errores", "tipo", tipo, "excepcion", error.getClass().getSimpleName())
+                .increment();
+    }
+
+    // Los contenedores JMS y el pool de Hikari existen recién al terminar el arranque
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarSaturacion() {
+        JmsListenerEndpointRegistry registro = registroListeners.getIfAvailable();
+        if (registro != null) {
+            for (MessageListenerContainer contenedor : registro.getListenerContainers()) {
+                if (contenedor instanceof DefaultMessageListenerContainer dmlc) {
+                    String cola = String.valueOf(dmlc.getDestinationName());
+                    Gauge.builder("transacciones.listener.consumidores_activos", dmlc,
+                            DefaultMessageListenerContainer::getActiveConsumerCount)
+                            .description("Consumidores del listener en ejecución (incluye los que esperan mensajes)")
+                            .tag("cola", cola)
+                            .register(meterRegistry);
+                    Gauge.builder("transacciones.listener.consumidores_maximos", dmlc,
+                            DefaultMessageListenerContainer::getMaxConcurrentConsumers)
+                            .tag("cola", cola)
+                            .register(meterRegistry);
+                }
+            }
+        }
+
+        HikariDataSource hikari = hikari(dataSource.getIfAvailable());
+        if (hikari != null) {
+            // 1.0 = todas las conexiones del máximo en uso; hikaricp.connections.pending muestra la cola de espera
+            Gauge.builder("transacciones.bd.pool.saturacion", hikari, TransaccionesMetricas::saturacion)
+                    .description("Fracción del máximo de conexiones de Hikari en uso")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double saturacion(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool == null ? 0.0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("MS2 EJECUTOR - No se pudo acceder al pool de Hikari para métricas: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -1,12 +1,12 @@
 package com.banquito.core.bank.transaction.model;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
@@ -29,10 +29,10 @@ public class CuentaCliente {
     private String numeroCuenta;
 
     @Column(name = "saldo_disponible", nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldoDisponible;
+    private Dinero saldoDisponible;
 
     @Column(name = "saldo_contable", nullable = false, precision = 15, scale = 2)
-    private BigDecimal saldoContable;
+    private Dinero saldoContable;
 
     @Column(name = "fecha_apertura", nullable = false)
     private Instant fechaApertura;
@@ -53,11 +53,11 @@ public class CuentaCliente {
     }
 
     // Métodos de conveniencia para compatibilidad
-    public BigDecimal getSaldo() {
+    public Dinero getSaldo() {
         return saldoDisponible;
     }
 
-    public void setSaldo(BigDecimal saldo) {
+    public void setSaldo(Dinero saldo) {
         this.saldoDisponible = saldo;
         // También actualizar saldo contable para mantener consistencia
         this.saldoContable = saldo;
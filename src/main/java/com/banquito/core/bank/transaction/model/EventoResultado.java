@@ -0,0 +1,80 @@
+package com.banquito.core.bank.transaction.model;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.id.IdTemporal;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Bandeja de salida: resultado final de una transacción pendiente de publicar a MS1. Se
+// inserta en la misma transacción de BD que el estado final y se borra al publicarse
+@Entity
+@Table(name = "eventos_resultado", schema = "account",
+        indexes = @Index(name = "idx_eventos_resultado_orden", columnList = "orden"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoResultado {
+
+    @Id
+    @IdTemporal
+    @Column(name = "id_evento", nullable = false)
+    private Long id;
+
+    // Orden de publicación. Lo asigna la BD al ejecutar el INSERT, que va después de bloquear
+    // la fila de la cuenta: para una misma cuenta crece en orden de commit. El ID temporal no
+    // sirve para esto porque se asigna antes de esperar el bloqueo (y en cada instancia con su reloj)
+    @Column(name = "orden", insertable = false, updatable = false,
+            columnDefinition = "bigint generated by default as identity")
+    private Long orden;
+
+    @Column(name = "id_transaccion", nullable = false)
+    private Long transaccionId;
+
+    @Column(name = "numero_cuenta", nullable = false, length = 10)
+    private String numeroCuenta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_transaccion", nullable = false, length = 20)
+    private Transacciones.TipoTransaccionEnum tipoTransaccion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 15)
+    private Transacciones.EstadoTransaccionesEnum estado;
+
+    @Column(name = "monto", nullable = false, precision = 15, scale = 2)
+    private Dinero monto;
+
+    @Column(name = "descripcion", length = 150)
+    private String descripcion;
+
+    @Column(name = "clave_idempotencia", length = 100)
+    private String claveIdempotencia;
+
+    @Column(name = "fecha_transaccion", nullable = false)
+    private Instant fechaTransaccion;
+
+    // Momento del registro en la bandeja; el relevo mide el retraso de publicación desde aquí
+    @Column(name = "fecha_registro", nullable = false)
+    private Instant fechaRegistro;
+
+    public static EventoResultado desde(Transacciones transaccion) {
+        return EventoResultado.builder()
+                .transaccionId(transaccion.getId())
+                .numeroCuenta(transaccion.getNumeroCuentaOrigen())
+                .tipoTransaccion(transaccion.getTipoTransaccion())
+                .estado(transaccion.getEstado())
+                .monto(transaccion.getMonto())
+                .descripcion(transaccion.getDescripcion())
+                .claveIdempotencia(transaccion.getClaveIdempotencia())
+                .fechaTransaccion(transaccion.getFechaTransaccion())
+                .fechaRegistro(Instant.now().truncatedTo(ChronoUnit.MICROS))
+                .build();
+    }
+}
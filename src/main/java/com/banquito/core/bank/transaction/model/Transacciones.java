@@ -1,17 +1,24 @@
 package com.banquito.core.bank.transaction.model;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.id.IdTemporal;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.PartitionKey;
 
-import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
+// El índice parcial idx_transacciones_saldo_pendiente no se puede declarar en JPA: lo crean
+// AjusteEsquemaDiario (ddl-auto) y la migración V5 (diario particionado)
 @Entity
-@Table(name = "transacciones", schema = "account")
+@Table(name = "transacciones", schema = "account", uniqueConstraints = @UniqueConstraint(name = "uk_transacciones_clave_idempotencia", columnNames = "clave_idempotencia"), indexes = {
+        @Index(name = "idx_transacciones_cuenta_fecha", columnList = "numero_cuenta_origen, fecha_transaccion, id_transaccion"),
+        @Index(name = "idx_transacciones_destino_fecha", columnList = "numero_cuenta_destino, fecha_transaccion, id_transaccion") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,8 +26,9 @@ import java.time.Instant;
 @Schema(description = "Entidad que representa una transacción bancaria")
 public class Transacciones {
 
+    // Asignado en memoria al persistir (ordenado por tiempo) para permitir inserciones por lotes
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdTemporal
     @Column(name = "id_transaccion", nullable = false)
     @Schema(description = "ID único de la transacción", example = "12345")
     private Long id;
@@ -40,12 +48,14 @@ public class Transacciones {
 
     @Column(name = "monto", nullable = false, precision = 15, scale = 2)
     @Schema(description = "Monto de la transacción", example = "150.50")
-    private BigDecimal monto;
+    private Dinero monto;
 
     @Column(name = "descripcion", length = 150)
     @Schema(description = "Descripción de la transacción", example = "Depósito por transferencia externa")
     private String descripcion;
 
+    // Con el diario particionado los UPDATE incluyen la fecha y PostgreSQL poda particiones
+    @PartitionKey
     @Column(name = "fecha_transaccion", nullable = false)
     @Schema(description = "Fecha y hora de la transacción", example = "2025-08-11T07:10:45.123Z")
     private Instant fechaTransaccion;
@@ -55,6 +65,14 @@ public class Transacciones {
     @Schema(description = "Estado actual de la transacción", example = "COMPLETADA")
     private EstadoTransaccionesEnum estado;
 
+    @Column(name = "clave_idempotencia", length = 100)
+    @Schema(description = "Clave de idempotencia del mensaje que originó la transacción", example = "3f2c9a7e-1b4d-4e8a-9c1f-6a2b8d0e5f71")
+    private String claveIdempotencia;
+
+    @Column(name = "saldo_pendiente")
+    @Schema(description = "Indica que el monto aún no se aplicó al saldo de la cuenta (escritura diferida)", example = "false")
+    private Boolean saldoPendiente;
+
     @Version
     @Column(name = "version", nullable = false, precision = 9)
     @Schema(description = "Versión para control de concurrencia optimista", example = "1")
@@ -62,7 +80,8 @@ public class Transacciones {
 
     @PrePersist
     protected void onCreate() {
-        fechaTransaccion = Instant.now();
+        // Misma precisión que la columna: la fecha forma parte del WHERE de los UPDATE (@PartitionKey)
+        fechaTransaccion = Instant.now().truncatedTo(ChronoUnit.MICROS);
         if (estado == null) {
             estado = EstadoTransaccionesEnum.PENDIENTE;
         }
@@ -73,7 +92,9 @@ public class Transacciones {
         @Schema(description = "Depósito de dinero a una cuenta")
         DEPOSITO,
         @Schema(description = "Retiro de dinero de una cuenta")
-        RETIRO
+        RETIRO,
+        @Schema(description = "Débito de la cuenta origen y crédito a la cuenta destino en una sola transacción")
+        TRANSFERENCIA
     }
 
     @Schema(description = "Estados posibles de una transacción")
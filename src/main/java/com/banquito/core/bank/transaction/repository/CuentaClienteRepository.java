@@ -1,8 +1,10 @@
 package com.banquito.core.bank.transaction.repository;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
 import com.banquito.core.bank.transaction.model.CuentaCliente;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,4 +27,16 @@ public interface CuentaClienteRepository extends JpaRepository<CuentaCliente, In
     // Método sin bloqueo para consultas simples
     Optional<CuentaCliente> findByNumeroCuenta(String numeroCuenta);
 
+    // Estado de la cuenta para la validación previa: sin transacción ni FOR UPDATE
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.CuentaMetadatosProyeccion("
+            + "c.id, c.numeroCuenta, c.estado) FROM CuentaCliente c WHERE c.numeroCuenta = :numeroCuenta")
+    Optional<CuentaMetadatosProyeccion> findMetadatosByNumeroCuenta(@Param("numeroCuenta") String numeroCuenta);
+
+    // Suma relativa al saldo en una sola sentencia (escritura diferida de cuentas calientes)
+    @Modifying
+    @Query("UPDATE CuentaCliente c SET c.saldoDisponible = c.saldoDisponible + :delta, "
+            + "c.saldoContable = c.saldoContable + :delta, c.version = c.version + 1 "
+            + "WHERE c.numeroCuenta = :numeroCuenta")
+    int acumularSaldo(@Param("numeroCuenta") String numeroCuenta, @Param("delta") Dinero delta);
+
 }
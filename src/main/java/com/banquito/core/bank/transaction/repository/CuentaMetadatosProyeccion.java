@@ -0,0 +1,10 @@
+package com.banquito.core.bank.transaction.repository;
+
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+
+// Lo que la validación previa necesita de una cuenta, sin saldo ni bloqueo de la fila
+public record CuentaMetadatosProyeccion(
+        Integer id,
+        String numeroCuenta,
+        CuentaCliente.EstadoCuentaClienteEnum estado) {
+}
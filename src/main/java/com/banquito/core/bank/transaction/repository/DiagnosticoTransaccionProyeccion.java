@@ -0,0 +1,18 @@
+package com.banquito.core.bank.transaction.repository;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+
+import java.time.Instant;
+
+// Fila del diagnóstico del diario; id es la clave de paginación (descendente)
+public record DiagnosticoTransaccionProyeccion(
+        Long id,
+        Instant fechaTransaccion,
+        String numeroCuentaOrigen,
+        String numeroCuentaDestino,
+        Transacciones.TipoTransaccionEnum tipoTransaccion,
+        Dinero monto,
+        Transacciones.EstadoTransaccionesEnum estado,
+        String descripcion) {
+}
@@ -0,0 +1,17 @@
+package com.banquito.core.bank.transaction.repository;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+
+import java.time.Instant;
+
+// Solo las columnas que expone la consulta de estado; se construye directamente desde la
+// consulta JPQL, sin entidades administradas ni snapshots en el contexto de persistencia
+public record EstadoTransaccionProyeccion(
+        Long id,
+        Transacciones.EstadoTransaccionesEnum estado,
+        Transacciones.TipoTransaccionEnum tipoTransaccion,
+        Dinero monto,
+        Instant fechaTransaccion,
+        String descripcion) {
+}
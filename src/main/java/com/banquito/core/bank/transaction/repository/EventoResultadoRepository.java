@@ -0,0 +1,9 @@
+package com.banquito.core.bank.transaction.repository;
+
+import com.banquito.core.bank.transaction.model.EventoResultado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventoResultadoRepository extends JpaRepository<EventoResultado, Long> {
+}
@@ -0,0 +1,21 @@
+package com.banquito.core.bank.transaction.repository;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+
+import java.time.Instant;
+
+// Fila del estado de cuenta; (fechaTransaccion, id) es la clave de paginación. sentido es
+// CREDITO o DEBITO visto desde la cuenta consultada: una transferencia es DEBITO en la cuenta
+// origen y CREDITO en la destino
+public record MovimientoCuentaProyeccion(
+        Long id,
+        Instant fechaTransaccion,
+        Transacciones.TipoTransaccionEnum tipoTransaccion,
+        String sentido,
+        Dinero monto,
+        Transacciones.EstadoTransaccionesEnum estado,
+        String numeroCuentaOrigen,
+        String numeroCuentaDestino,
+        String descripcion) {
+}
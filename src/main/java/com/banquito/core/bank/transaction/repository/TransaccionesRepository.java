@@ -1,10 +1,100 @@
 package com.banquito.core.bank.transaction.repository;
 
 import com.banquito.core.bank.transaction.model.Transacciones;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransaccionesRepository extends JpaRepository<Transacciones, Long> {
 
+    // Movimientos de escritura diferida aún no aplicados al saldo de la cuenta, desde una fecha
+    // para podar particiones; usa el índice parcial idx_transacciones_saldo_pendiente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transacciones t WHERE t.numeroCuentaOrigen = :numeroCuenta AND t.saldoPendiente = true "
+            + "AND t.fechaTransaccion >= :desde")
+    List<Transacciones> findSaldoPendienteWithLock(@Param("numeroCuenta") String numeroCuenta,
+            @Param("desde") Instant desde);
+
+    // Solo al arrancar y sin límite de fecha: recorre el índice parcial, que solo contiene las
+    // filas pendientes
+    @Query("SELECT DISTINCT t.numeroCuentaOrigen FROM Transacciones t WHERE t.saldoPendiente = true")
+    List<String> findCuentasConSaldoPendiente();
+
+    // desde y hasta son la fecha mínima y máxima de las filas reclamadas
+    @Modifying
+    @Query("UPDATE Transacciones t SET t.saldoPendiente = false WHERE t.id IN :ids "
+            + "AND t.fechaTransaccion >= :desde AND t.fechaTransaccion <= :hasta")
+    int marcarSaldoAplicado(@Param("ids") List<Long> ids, @Param("desde") Instant desde,
+            @Param("hasta") Instant hasta);
+
+    // Búsqueda por ID acotada por fecha, para podar particiones del diario particionado
+    Optional<Transacciones> findByIdAndFechaTransaccionBetween(Long id, Instant desde, Instant hasta);
+
+    // Proyección para la consulta de estado por lote (sin cargar entidades)
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.EstadoTransaccionProyeccion("
+            + "t.id, t.estado, t.tipoTransaccion, t.monto, t.fechaTransaccion, t.descripcion) "
+            + "FROM Transacciones t WHERE t.id IN :ids")
+    List<EstadoTransaccionProyeccion> findEstadosByIdIn(@Param("ids") List<Long> ids);
+
+    // Igual que findEstadosByIdIn, acotada por fecha para podar particiones del diario particionado
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.EstadoTransaccionProyeccion("
+            + "t.id, t.estado, t.tipoTransaccion, t.monto, t.fechaTransaccion, t.descripcion) "
+            + "FROM Transacciones t WHERE t.id IN :ids AND t.fechaTransaccion BETWEEN :desde AND :hasta")
+    List<EstadoTransaccionProyeccion> findEstadosByIdInAndFechaBetween(@Param("ids") List<Long> ids,
+            @Param("desde") Instant desde, @Param("hasta") Instant hasta);
+
+    // Página de los movimientos de la cuenta como origen posterior a (ultimaFecha, ultimoId), en
+    // orden de fecha e ID; usa el índice idx_transacciones_cuenta_fecha. La condición redundante
+    // fecha >= ultimaFecha es la que acota el rango del índice: el OR por sí solo no sirve como
+    // límite inferior
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.MovimientoCuentaProyeccion("
+            + "t.id, t.fechaTransaccion, t.tipoTransaccion, "
+            + "CASE WHEN t.tipoTransaccion = com.banquito.core.bank.transaction.model.Transacciones.TipoTransaccionEnum.DEPOSITO "
+            + "THEN 'CREDITO' ELSE 'DEBITO' END, "
+            + "t.monto, t.estado, t.numeroCuentaOrigen, t.numeroCuentaDestino, t.descripcion) "
+            + "FROM Transacciones t WHERE t.numeroCuentaOrigen = :numeroCuenta "
+            + "AND t.fechaTransaccion >= :inicio AND t.fechaTransaccion < :fin "
+            + "AND t.fechaTransaccion >= :ultimaFecha "
+            + "AND (t.fechaTransaccion > :ultimaFecha OR (t.fechaTransaccion = :ultimaFecha AND t.id > :ultimoId)) "
+            + "ORDER BY t.fechaTransaccion, t.id")
+    List<MovimientoCuentaProyeccion> findMovimientosDesde(@Param("numeroCuenta") String numeroCuenta,
+            @Param("inicio") Instant inicio, @Param("fin") Instant fin, @Param("ultimaFecha") Instant ultimaFecha,
+            @Param("ultimoId") long ultimoId, Limit limit);
+
+    // Lo mismo para las transferencias completadas que la cuenta recibió, sobre el índice
+    // idx_transacciones_destino_fecha. Va en una consulta aparte y no como OR en la anterior:
+    // cada una recorre su índice en orden y se detiene en el límite, mientras que un OR obliga
+    // a leer y ordenar todo el resto del rango en cada página
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.MovimientoCuentaProyeccion("
+            + "t.id, t.fechaTransaccion, t.tipoTransaccion, 'CREDITO', "
+            + "t.monto, t.estado, t.numeroCuentaOrigen, t.numeroCuentaDestino, t.descripcion) "
+            + "FROM Transacciones t WHERE t.numeroCuentaDestino = :numeroCuenta "
+            + "AND t.tipoTransaccion = com.banquito.core.bank.transaction.model.Transacciones.TipoTransaccionEnum.TRANSFERENCIA "
+            + "AND t.estado = com.banquito.core.bank.transaction.model.Transacciones.EstadoTransaccionesEnum.COMPLETADA "
+            + "AND t.fechaTransaccion >= :inicio AND t.fechaTransaccion < :fin "
+            + "AND t.fechaTransaccion >= :ultimaFecha "
+            + "AND (t.fechaTransaccion > :ultimaFecha OR (t.fechaTransaccion = :ultimaFecha AND t.id > :ultimoId)) "
+            + "ORDER BY t.fechaTransaccion, t.id")
+    List<MovimientoCuentaProyeccion> findCreditosRecibidosDesde(@Param("numeroCuenta") String numeroCuenta,
+            @Param("inicio") Instant inicio, @Param("fin") Instant fin, @Param("ultimaFecha") Instant ultimaFecha,
+            @Param("ultimoId") long ultimoId, Limit limit);
+
+    // Página del diagnóstico del diario: las transacciones anteriores a antesDeId, de la más
+    // reciente a la más antigua (los IDs crecen con el tiempo)
+    @Query("SELECT new com.banquito.core.bank.transaction.repository.DiagnosticoTransaccionProyeccion("
+            + "t.id, t.fechaTransaccion, t.numeroCuentaOrigen, t.numeroCuentaDestino, t.tipoTransaccion, t.monto, "
+            + "t.estado, t.descripcion) "
+            + "FROM Transacciones t WHERE t.id < :antesDeId ORDER BY t.id DESC")
+    List<DiagnosticoTransaccionProyeccion> findDiagnosticoAntesDe(@Param("antesDeId") long antesDeId, Limit limit);
+
 }
@@ -0,0 +1,87 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.model.EventoResultado;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.EventoResultadoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// Escritura en la bandeja de salida. Debe llamarse dentro de la transacción de BD que guarda
+// el estado final: si esa transacción se revierte (error técnico, clave duplicada), el evento
+// tampoco existe y MS1 solo recibe resultados confirmados. RelevoBandejaSalida los publica
+@Component
+@ConditionalOnProperty(name = "transacciones.bandeja-salida.habilitado", havingValue = "true")
+public class BandejaSalidaResultados {
+
+    private static final String SQL_INSERTAR_EVENTO = "INSERT INTO account.eventos_resultado "
+            + "(id_evento, id_transaccion, numero_cuenta, tipo_transaccion, estado, monto, descripcion, "
+            + "clave_idempotencia, fecha_transaccion, fecha_registro) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Para SqlDirectoExecutor: CTE adicional que registra el evento a partir de la fila
+    // insertada en la misma sentencia (y por lo tanto en el mismo auto-commit)
+    public static final String CTE_EVENTO_SQL_DIRECTO = """
+            , evento AS (
+                INSERT INTO account.eventos_resultado (id_evento, id_transaccion, numero_cuenta, tipo_transaccion,
+                       estado, monto, descripcion, clave_idempotencia, fecha_transaccion, fecha_registro)
+                SELECT CAST(:idEvento AS bigint), id_transaccion, CAST(:numeroCuenta AS varchar), CAST(:tipo AS varchar),
+                       estado, CAST(:monto AS numeric), CAST(:descripcion AS varchar),
+                       CAST(:claveIdempotencia AS varchar), fecha_transaccion, now()
+                  FROM insertada
+            )
+            """;
+
+    private final EventoResultadoRepository eventoResultadoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final GeneradorIdTemporal generadorId;
+
+    public BandejaSalidaResultados(EventoResultadoRepository eventoResultadoRepository, JdbcTemplate jdbcTemplate,
+            GeneradorIdTemporal generadorId) {
+        this.eventoResultadoRepository = eventoResultadoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.generadorId = generadorId;
+    }
+
+    // Ruta JPA: el INSERT se agrupa con el resto del flush
+    public void registrar(Transacciones transaccion) {
+        eventoResultadoRepository.save(EventoResultado.desde(transaccion));
+    }
+
+    // Ruta por lotes: un INSERT JDBC por lotes junto al del diario
+    public void registrar(List<Transacciones> transacciones) {
+        List<EventoResultado> eventos = transacciones.stream().map(EventoResultado::desde).toList();
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_EVENTO, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EventoResultado e = eventos.get(i);
+                ps.setLong(1, generadorId.siguiente());
+                ps.setLong(2, e.getTransaccionId());
+                ps.setString(3, e.getNumeroCuenta());
+                ps.setString(4, e.getTipoTransaccion().name());
+                ps.setString(5, e.getEstado().name());
+                ps.setBigDecimal(6, e.getMonto().aBigDecimal());
+                ps.setString(7, e.getDescripcion());
+                ps.setString(8, e.getClaveIdempotencia());
+                ps.setObject(9, OffsetDateTime.ofInstant(e.getFechaTransaccion(), ZoneOffset.UTC));
+                ps.setObject(10, OffsetDateTime.ofInstant(e.getFechaRegistro(), ZoneOffset.UTC));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return eventos.size();
+            }
+        });
+    }
+
+    public long siguienteId() {
+        return generadorId.siguiente();
+    }
+}
@@ -0,0 +1,115 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dto.ErrorRespuestaDTO;
+import com.banquito.core.bank.transaction.dto.TransaccionRespuestaDTO;
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.repository.EstadoTransaccionProyeccion;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// Consulta de estado de muchas transacciones en una llamada: los IDs se resuelven en
+// bloques con IN sobre una proyección y la respuesta se escribe en streaming, bloque a
+// bloque, así la memoria no depende del tamaño de la solicitud
+@Service
+@Slf4j
+public class ConsultaEstadoLoteService {
+
+    private final TransaccionesRepository transaccionesRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${transacciones.consulta-lote.tamano-bloque:1000}")
+    private int tamanoBloque;
+
+    @Value("${transacciones.consulta-lote.maximo-ids:20000}")
+    private int maximoIds;
+
+    @Value("${transacciones.particionado.habilitado:false}")
+    private boolean particionado;
+
+    public ConsultaEstadoLoteService(TransaccionesRepository transaccionesRepository, ObjectMapper objectMapper) {
+        this.transaccionesRepository = transaccionesRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public int getMaximoIds() {
+        return maximoIds;
+    }
+
+    // Escribe un arreglo JSON en el orden de los IDs solicitados (sin repetidos); los
+    // inexistentes van con mensajeError y sin estado
+    public void escribir(List<Long> transaccionIds, OutputStream salida) throws IOException {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(transaccionIds));
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.writeStartArray();
+            for (int desde = 0; desde < ids.size(); desde += tamanoBloque) {
+                List<Long> bloque = ids.subList(desde, Math.min(desde + tamanoBloque, ids.size()));
+                Map<Long, EstadoTransaccionProyeccion> encontradas = buscar(bloque);
+                for (Long id : bloque) {
+                    EstadoTransaccionProyeccion estado = encontradas.get(id);
+                    objectMapper.writeValue(generador, estado != null
+                            ? TransaccionRespuestaDTO.desde(estado)
+                            : TransaccionRespuestaDTO.builder()
+                                    .transaccionId(id)
+                                    .mensajeError("Transacción no encontrada")
+                                    .build());
+                }
+                // Entregar cada bloque al cliente en cuanto está listo
+                generador.flush();
+            }
+            generador.writeEndArray();
+        }
+        log.info("Consulta de estado por lote: {} transacciones", ids.size());
+    }
+
+    // Con el diario particionado, IN sobre IDs recorre el índice de todas las particiones. Igual
+    // que EstadoTransaccionesCache, el bloque se acota primero por el instante mínimo y máximo
+    // de sus IDs temporales (con el mismo margen); los que no aparecen ahí, y los IDs IDENTITY
+    // anteriores, se buscan sin acotar
+    private Map<Long, EstadoTransaccionProyeccion> buscar(List<Long> bloque) {
+        Map<Long, EstadoTransaccionProyeccion> encontradas = new HashMap<>(bloque.size() * 2);
+        List<Long> restantes = bloque;
+        if (particionado) {
+            Instant desde = null;
+            Instant hasta = null;
+            for (Long id : bloque) {
+                if (GeneradorIdTemporal.esTemporal(id)) {
+                    Instant creacion = GeneradorIdTemporal.instanteDe(id);
+                    desde = desde == null || creacion.isBefore(desde) ? creacion : desde;
+                    hasta = hasta == null || creacion.isAfter(hasta) ? creacion : hasta;
+                }
+            }
+            if (desde != null) {
+                for (EstadoTransaccionProyeccion estado : transaccionesRepository.findEstadosByIdInAndFechaBetween(
+                        bloque, desde.minus(GeneradorIdTemporal.MARGEN_FECHA),
+                        hasta.plus(GeneradorIdTemporal.MARGEN_FECHA))) {
+                    encontradas.put(estado.id(), estado);
+                }
+                restantes = bloque.stream().filter(id -> !encontradas.containsKey(id)).toList();
+            }
+        }
+        if (!restantes.isEmpty()) {
+            for (EstadoTransaccionProyeccion estado : transaccionesRepository.findEstadosByIdIn(restantes)) {
+                encontradas.put(estado.id(), estado);
+            }
+        }
+        return encontradas;
+    }
+
+    public void escribirError(ErrorRespuestaDTO error, OutputStream salida) throws IOException {
+        objectMapper.writeValue(salida, error);
+    }
+}
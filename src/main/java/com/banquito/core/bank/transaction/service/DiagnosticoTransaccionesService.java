@@ -0,0 +1,64 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.repository.DiagnosticoTransaccionProyeccion;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Reemplaza el volcado completo del diario de /check: devuelve como NDJSON a lo sumo
+// limite-maximo transacciones anteriores a un ID, de la más reciente a la más antigua. Igual
+// que el estado de cuenta, se lee por páginas cortas sobre la clave primaria y solo una
+// página vive en memoria; el cliente continúa pidiendo antesDeId = último ID recibido
+@Service
+@Slf4j
+public class DiagnosticoTransaccionesService {
+
+    private final TransaccionesRepository transaccionesRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${transacciones.diagnostico.tamano-pagina:200}")
+    private int tamanoPagina;
+
+    @Value("${transacciones.diagnostico.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    public DiagnosticoTransaccionesService(TransaccionesRepository transaccionesRepository,
+            ObjectMapper objectMapper) {
+        this.transaccionesRepository = transaccionesRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void escribir(long antesDeId, int limite, OutputStream salida) throws IOException {
+        int restantes = Math.min(Math.max(limite, 1), limiteMaximo);
+        long cursor = antesDeId;
+        long total = 0;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.setRootValueSeparator(new SerializedString("\n"));
+            List<DiagnosticoTransaccionProyeccion> transacciones;
+            while (restantes > 0 && !(transacciones = transaccionesRepository.findDiagnosticoAntesDe(cursor,
+                    Limit.of(Math.min(tamanoPagina, restantes)))).isEmpty()) {
+                for (DiagnosticoTransaccionProyeccion transaccion : transacciones) {
+                    objectMapper.writeValue(generador, transaccion);
+                }
+                cursor = transacciones.get(transacciones.size() - 1).id();
+                restantes -= transacciones.size();
+                total += transacciones.size();
+                generador.flush();
+            }
+            if (total > 0) {
+                generador.writeRaw('\n');
+            }
+        }
+        log.info("Diagnóstico del diario exportado: antesDeId={}, transacciones={}", antesDeId, total);
+    }
+}
@@ -0,0 +1,108 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Escritura diferida de saldos para cuentas calientes: cada depósito se registra en
+// el diario de transacciones con saldo_pendiente=true y el delta se acumula en memoria;
+// el saldo de cuentas_clientes se actualiza cada intervalo-ms o al superar umbral-delta.
+// El diario es la fuente de verdad, así que tras una caída basta con reaplicar las
+// filas pendientes
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.escritura-diferida.habilitado", havingValue = "true")
+public class EscrituraDiferidaSaldos {
+
+    private final SaldosPendientesService saldosPendientesService;
+    private final Set<String> cuentasCalientes;
+    private final long umbralDeltaCentavos;
+    // Delta acumulado por cuenta en centavos; el AtomicLong se reutiliza en cada depósito
+    private final ConcurrentHashMap<String, AtomicLong> deltas = new ConcurrentHashMap<>();
+
+    public EscrituraDiferidaSaldos(SaldosPendientesService saldosPendientesService,
+            @Value("${transacciones.escritura-diferida.cuentas-calientes:}") List<String> cuentasCalientes,
+            @Value("${transacciones.escritura-diferida.umbral-delta:10000.00}") String umbralDelta) {
+        this.saldosPendientesService = saldosPendientesService;
+        this.cuentasCalientes = Set.copyOf(cuentasCalientes);
+        this.umbralDeltaCentavos = Dinero.parse(umbralDelta).centavos();
+    }
+
+    public boolean esCuentaCaliente(String numeroCuenta) {
+        return cuentasCalientes.contains(numeroCuenta);
+    }
+
+    // Acumula el delta cuando la transacción que insertó el movimiento hace commit;
+    // un rollback no deja delta en memoria
+    public void registrar(String numeroCuenta, Dinero monto) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long acumulado = deltas.computeIfAbsent(numeroCuenta, cuenta -> new AtomicLong())
+                        .accumulateAndGet(monto.centavos(), Math::addExact);
+                // El depósito ya está confirmado: un fallo aquí no debe llegar al listener
+                if (Math.abs(acumulado) >= umbralDeltaCentavos) {
+                    aplicarConReintento(numeroCuenta);
+                }
+            }
+        });
+    }
+
+    // Lleva el saldo de la cuenta al día en su propia transacción
+    public void aplicar(String numeroCuenta) {
+        deltas.remove(numeroCuenta);
+        saldosPendientesService.aplicarPendientes(numeroCuenta);
+    }
+
+    // Para retiros y transferencias desde una cuenta caliente: devuelve los depósitos aún no
+    // aplicados, ya marcados como aplicados en la transacción en curso, para sumarlos a la
+    // fila bloqueada. El delta en memoria queda y el siguiente ciclo lo descarta sin cambios
+    public Dinero reclamarPendientes(String numeroCuenta) {
+        return saldosPendientesService.reclamarPendientes(numeroCuenta);
+    }
+
+    @Scheduled(fixedDelayString = "${transacciones.escritura-diferida.intervalo-ms:1000}")
+    public void aplicarAcumulados() {
+        for (String numeroCuenta : deltas.keySet()) {
+            aplicarConReintento(numeroCuenta);
+        }
+    }
+
+    private void aplicarConReintento(String numeroCuenta) {
+        try {
+            aplicar(numeroCuenta);
+        } catch (Exception e) {
+            // El movimiento sigue pendiente en el diario y se reintenta en el siguiente ciclo
+            deltas.putIfAbsent(numeroCuenta, new AtomicLong());
+            log.error("Error aplicando saldo diferido de la cuenta {}: {}", numeroCuenta, e.getMessage());
+        }
+    }
+
+    // Recupera los movimientos que quedaron pendientes por una caída previa
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarPendientes() {
+        List<String> cuentas = saldosPendientesService.cuentasConSaldoPendiente();
+        if (!cuentas.isEmpty()) {
+            log.warn("Recuperando saldos diferidos pendientes de {} cuentas", cuentas.size());
+            cuentas.forEach(saldosPendientesService::recuperarPendientes);
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        aplicarAcumulados();
+    }
+}
@@ -0,0 +1,216 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.repository.MovimientoCuentaProyeccion;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Exporta el estado de cuenta (movimientos de la cuenta como origen y transferencias recibidas
+// en un rango de fechas) como NDJSON o CSV. Se pagina por clave (fecha_transaccion,
+// id_transaccion) sobre los índices idx_transacciones_cuenta_fecha y
+// idx_transacciones_destino_fecha, y las dos secuencias se intercalan en orden: cada página
+// es una consulta corta que devuelve la conexión al pool antes de escribirse, en lugar de
+// mantener un cursor abierto compitiendo con los consumidores JMS mientras el cliente
+// descarga. En memoria vive a lo sumo una página de cada secuencia
+@Service
+@Slf4j
+public class EstadoCuentaService {
+
+    public enum Formato {
+        NDJSON,
+        CSV
+    }
+
+    private static final String ENCABEZADO_CSV =
+            "id_transaccion,fecha_transaccion,tipo_transaccion,sentido,monto,estado,numero_cuenta_origen,"
+                    + "numero_cuenta_destino,descripcion\n";
+
+    // Orden del estado de cuenta, que también es la clave de paginación
+    private static final Comparator<MovimientoCuentaProyeccion> ORDEN = Comparator
+            .comparing(MovimientoCuentaProyeccion::fechaTransaccion)
+            .thenComparing(MovimientoCuentaProyeccion::id);
+
+    private final TransaccionesRepository transaccionesRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${transacciones.estado-cuenta.tamano-pagina:1000}")
+    private int tamanoPagina;
+
+    @Value("${transacciones.estado-cuenta.zona-horaria:UTC}")
+    private ZoneId zonaHoraria;
+
+    public EstadoCuentaService(TransaccionesRepository transaccionesRepository, ObjectMapper objectMapper) {
+        this.transaccionesRepository = transaccionesRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Rango por días, ambos inclusive, en la zona horaria configurada
+    public void escribir(String numeroCuenta, LocalDate desde, LocalDate hasta, Formato formato, OutputStream salida)
+            throws IOException {
+        Instant inicio = desde.atStartOfDay(zonaHoraria).toInstant();
+        Instant fin = hasta.plusDays(1).atStartOfDay(zonaHoraria).toInstant();
+
+        long total = formato == Formato.CSV
+                ? escribirCsv(numeroCuenta, inicio, fin, salida)
+                : escribirNdjson(numeroCuenta, inicio, fin, salida);
+        log.info("Estado de cuenta exportado: cuenta={}, desde={}, hasta={}, formato={}, movimientos={}",
+                numeroCuenta, desde, hasta, formato, total);
+    }
+
+    private long escribirNdjson(String numeroCuenta, Instant inicio, Instant fin, OutputStream salida)
+            throws IOException {
+        long total = 0;
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            generador.setRootValueSeparator(new SerializedString("\n"));
+            Pagina pagina = new Pagina(numeroCuenta, inicio, fin);
+            List<MovimientoCuentaProyeccion> movimientos;
+            while (!(movimientos = pagina.siguiente()).isEmpty()) {
+                for (MovimientoCuentaProyeccion movimiento : movimientos) {
+                    objectMapper.writeValue(generador, movimiento);
+                }
+                total += movimientos.size();
+                generador.flush();
+            }
+            if (total > 0) {
+                generador.writeRaw('\n');
+            }
+        }
+        return total;
+    }
+
+    private long escribirCsv(String numeroCuenta, Instant inicio, Instant fin, OutputStream salida)
+            throws IOException {
+        long total = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8))) {
+            writer.write(ENCABEZADO_CSV);
+            Pagina pagina = new Pagina(numeroCuenta, inicio, fin);
+            List<MovimientoCuentaProyeccion> movimientos;
+            while (!(movimientos = pagina.siguiente()).isEmpty()) {
+                for (MovimientoCuentaProyeccion m : movimientos) {
+                    writer.write(String.valueOf(m.id()));
+                    writer.write(',');
+                    writer.write(m.fechaTransaccion().toString());
+                    writer.write(',');
+                    writer.write(m.tipoTransaccion().name());
+                    writer.write(',');
+                    writer.write(m.sentido());
+                    writer.write(',');
+                    writer.write(m.monto().toString());
+                    writer.write(',');
+                    writer.write(m.estado().name());
+                    writer.write(',');
+                    writer.write(m.numeroCuentaOrigen());
+                    writer.write(',');
+                    writer.write(m.numeroCuentaDestino() != null ? m.numeroCuentaDestino() : "");
+                    writer.write(',');
+                    writer.write(campoCsv(m.descripcion()));
+                    writer.write('\n');
+                }
+                total += movimientos.size();
+                writer.flush();
+            }
+        }
+        return total;
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    // Intercala en orden de (fecha, id) los movimientos como origen y los créditos recibidos,
+    // cada uno con su propio cursor. Una transferencia nunca tiene la misma cuenta en los dos
+    // lados, así que ninguna fila aparece dos veces
+    private final class Pagina {
+
+        private final Cursor comoOrigen;
+        private final Cursor comoDestino;
+
+        Pagina(String numeroCuenta, Instant inicio, Instant fin) {
+            this.comoOrigen = new Cursor((ultimaFecha, ultimoId) -> transaccionesRepository.findMovimientosDesde(
+                    numeroCuenta, inicio, fin, ultimaFecha, ultimoId, Limit.of(tamanoPagina)), inicio);
+            this.comoDestino = new Cursor((ultimaFecha, ultimoId) -> transaccionesRepository
+                    .findCreditosRecibidosDesde(numeroCuenta, inicio, fin, ultimaFecha, ultimoId,
+                            Limit.of(tamanoPagina)), inicio);
+        }
+
+        List<MovimientoCuentaProyeccion> siguiente() {
+            List<MovimientoCuentaProyeccion> movimientos = new ArrayList<>(tamanoPagina);
+            while (movimientos.size() < tamanoPagina) {
+                MovimientoCuentaProyeccion origen = comoOrigen.primero();
+                MovimientoCuentaProyeccion destino = comoDestino.primero();
+                if (origen == null && destino == null) {
+                    break;
+                }
+                movimientos.add(destino == null || (origen != null && ORDEN.compare(origen, destino) < 0)
+                        ? comoOrigen.tomar()
+                        : comoDestino.tomar());
+            }
+            return movimientos;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConsultaPagina {
+        List<MovimientoCuentaProyeccion> despuesDe(Instant ultimaFecha, long ultimoId);
+    }
+
+    // Cursor de paginación por clave: recuerda el último (fecha, id) leído y guarda la página
+    // en curso hasta que se entrega
+    private final class Cursor {
+
+        private final ConsultaPagina consulta;
+        private final ArrayDeque<MovimientoCuentaProyeccion> pendientes = new ArrayDeque<>();
+        private Instant ultimaFecha;
+        private long ultimoId = Long.MIN_VALUE;
+        private boolean agotado;
+
+        Cursor(ConsultaPagina consulta, Instant inicio) {
+            this.consulta = consulta;
+            this.ultimaFecha = inicio;
+        }
+
+        MovimientoCuentaProyeccion primero() {
+            if (pendientes.isEmpty() && !agotado) {
+                List<MovimientoCuentaProyeccion> movimientos = consulta.despuesDe(ultimaFecha, ultimoId);
+                agotado = movimientos.size() < tamanoPagina;
+                if (!movimientos.isEmpty()) {
+                    MovimientoCuentaProyeccion ultimo = movimientos.get(movimientos.size() - 1);
+                    ultimaFecha = ultimo.fechaTransaccion();
+                    ultimoId = ultimo.id();
+                    pendientes.addAll(movimientos);
+                }
+            }
+            return pendientes.peekFirst();
+        }
+
+        MovimientoCuentaProyeccion tomar() {
+            return pendientes.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.cache.CacheAcotada;
+import com.banquito.core.bank.transaction.dto.TransaccionRespuestaDTO;
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+// Caché de lectura para la consulta de estado: MS1 y los clientes consultan el estado
+// repetidamente mientras la transacción está PENDIENTE, y cada consulta tomaba una
+// conexión del mismo pool que usan los consumidores JMS. Los estados finales se guardan
+// con TTL largo; PENDIENTE con TTL corto. TransaccionesService actualiza la entrada al
+// confirmar el estado final, así que el TTL de PENDIENTE solo cubre escrituras externas
+@Component
+public class EstadoTransaccionesCache {
+
+    private final TransaccionesRepository transaccionesRepository;
+    private final CacheAcotada<Long, TransaccionRespuestaDTO> estados;
+    private final Duration ttlTerminal;
+    private final Duration ttlPendiente;
+    private final boolean particionado;
+
+    public EstadoTransaccionesCache(TransaccionesRepository transaccionesRepository, MeterRegistry meterRegistry,
+            @Value("${transacciones.cache-estado.capacidad:50000}") int capacidad,
+            @Value("${transacciones.cache-estado.ttl-terminal-minutos:30}") long ttlTerminalMinutos,
+            @Value("${transacciones.cache-estado.ttl-pendiente-ms:1000}") long ttlPendienteMs,
+            @Value("${transacciones.cache-estado.segmentos:16}") int segmentos,
+            @Value("${transacciones.particionado.habilitado:false}") boolean particionado) {
+        this.transaccionesRepository = transaccionesRepository;
+        this.ttlTerminal = Duration.ofMinutes(ttlTerminalMinutos);
+        this.ttlPendiente = Duration.ofMillis(ttlPendienteMs);
+        this.particionado = particionado;
+        this.estados = new CacheAcotada<Long, TransaccionRespuestaDTO>(capacidad, ttlTerminal, segmentos)
+                .registrarMetricas(meterRegistry, "estado");
+    }
+
+    // Las transacciones inexistentes no se guardan: pueden aparecer en cualquier momento
+    public Optional<TransaccionRespuestaDTO> consultar(Long transaccionId) {
+        TransaccionRespuestaDTO respuesta = estados.obtener(transaccionId);
+        if (respuesta != null) {
+            return Optional.of(respuesta);
+        }
+        return buscar(transaccionId).map(transaccion -> {
+            TransaccionRespuestaDTO nueva = TransaccionRespuestaDTO.desde(transaccion);
+            guardar(transaccion.getId(), nueva);
+            return nueva;
+        });
+    }
+
+    // Con el diario particionado, findById recorre el índice de todas las particiones. Los IDs
+    // temporales llevan el instante de creación, así que la búsqueda se acota a esa fecha
+    // (con margen por la diferencia de reloj con la BD) y toca una sola partición
+    private Optional<Transacciones> buscar(Long transaccionId) {
+        if (particionado && GeneradorIdTemporal.esTemporal(transaccionId)) {
+            Instant creacion = GeneradorIdTemporal.instanteDe(transaccionId);
+            Optional<Transacciones> transaccion = transaccionesRepository.findByIdAndFechaTransaccionBetween(
+                    transaccionId, creacion.minus(GeneradorIdTemporal.MARGEN_FECHA),
+                    creacion.plus(GeneradorIdTemporal.MARGEN_FECHA));
+            if (transaccion.isPresent()) {
+                return transaccion;
+            }
+        }
+        return transaccionesRepository.findById(transaccionId);
+    }
+
+    // Con una transacción de BD activa la entrada se actualiza recién tras el commit, para
+    // no publicar un estado que luego se revierte
+    public void actualizar(Transacciones transaccion) {
+        if (transaccion.getId() == null) {
+            return;
+        }
+        TransaccionRespuestaDTO respuesta = TransaccionRespuestaDTO.desde(transaccion);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guardar(transaccion.getId(), respuesta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guardar(transaccion.getId(), respuesta);
+            }
+        });
+    }
+
+    private void guardar(Long transaccionId, TransaccionRespuestaDTO respuesta) {
+        boolean pendiente = Transacciones.EstadoTransaccionesEnum.PENDIENTE.name().equals(respuesta.getEstado());
+        estados.poner(transaccionId, respuesta, pendiente ? ttlPendiente : ttlTerminal);
+    }
+}
@@ -0,0 +1,90 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.cache.CacheAcotada;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Evita ejecutar dos veces el mismo mensaje. Las claves de las transacciones ya
+// registradas se guardan en una caché acotada (LRU + TTL): una reentrega reciente se
+// descarta con una búsqueda en memoria, sin abrir transacción. Si la clave ya salió de la
+// caché (o tras un reinicio), la restricción única de transacciones.clave_idempotencia
+// hace fallar el INSERT y la transacción completa se revierte sin tocar el saldo
+@Component
+@Slf4j
+public class IdempotenciaTransacciones {
+
+    public static final String RESTRICCION_CLAVE = "uk_transacciones_clave_idempotencia";
+
+    // Valor guardado cuando no se conoce el ID de la transacción original
+    private static final Long ID_DESCONOCIDO = 0L;
+
+    private final CacheAcotada<String, Long> procesadas;
+    private final Counter duplicadosCache;
+    private final Counter duplicadosBd;
+
+    public IdempotenciaTransacciones(MeterRegistry meterRegistry,
+            @Value("${transacciones.idempotencia.capacidad:100000}") int capacidad,
+            @Value("${transacciones.idempotencia.ttl-minutos:60}") long ttlMinutos,
+            @Value("${transacciones.idempotencia.segmentos:16}") int segmentos) {
+        this.procesadas = new CacheAcotada<String, Long>(capacidad, Duration.ofMinutes(ttlMinutos), segmentos)
+                .registrarMetricas(meterRegistry, "idempotencia");
+        this.duplicadosCache = Counter.builder("transacciones.duplicados")
+                .description("Mensajes duplicados descartados")
+                .tag("origen", "cache")
+                .register(meterRegistry);
+        this.duplicadosBd = Counter.builder("transacciones.duplicados")
+                .description("Mensajes duplicados descartados")
+                .tag("origen", "bd")
+                .register(meterRegistry);
+    }
+
+    // Sin clave no hay deduplicación posible
+    public boolean esDuplicada(TransaccionesSolicitudDTO dto) {
+        String clave = dto.getClaveIdempotencia();
+        if (clave == null) {
+            return false;
+        }
+        Long id = procesadas.obtener(clave);
+        if (id == null) {
+            return false;
+        }
+        duplicadosCache.increment();
+        log.warn("MS2 EJECUTOR - Mensaje duplicado descartado: clave={}, transacción original={}", clave,
+                ID_DESCONOCIDO.equals(id) ? "desconocida" : id);
+        return true;
+    }
+
+    // Llamar solo después del commit de la transacción que usó la clave
+    public void registrar(String clave, Long transaccionId) {
+        if (clave != null) {
+            procesadas.poner(clave, transaccionId != null ? transaccionId : ID_DESCONOCIDO);
+        }
+    }
+
+    // Detecta la violación de la restricción única de la clave en cualquier nivel de la causa
+    public boolean esClaveDuplicada(Throwable error) {
+        boolean integridad = false;
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            integridad |= causa instanceof DataIntegrityViolationException;
+            if (integridad && causa.getMessage() != null
+                    && causa.getMessage().toLowerCase(Locale.ROOT).contains(RESTRICCION_CLAVE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void registrarDuplicadoBd(TransaccionesSolicitudDTO dto) {
+        duplicadosBd.increment();
+        registrar(dto.getClaveIdempotencia(), ID_DESCONOCIDO);
+        log.warn("MS2 EJECUTOR - Mensaje duplicado rechazado por la BD: clave={}", dto.getClaveIdempotencia());
+    }
+}
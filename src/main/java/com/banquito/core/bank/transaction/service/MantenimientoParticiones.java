@@ -0,0 +1,308 @@
+package com.banquito.core.bank.transaction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Mantenimiento del diario particionado (perfil "particionado", esquema creado por la
+// migración V1 de Flyway, PostgreSQL 14+): deja creadas las particiones mensuales de los
+// próximos meses y archiva las que salen de la retención. Una partición vencida se separa
+// con DETACH CONCURRENTLY, sin bloquear las inserciones, se exporta a CSV comprimido en el
+// directorio de archivo y recién después se elimina. Si el proceso se interrumpe, la tabla
+// separada queda en el esquema y se archiva en la siguiente ejecución.
+// Corre en un hilo propio: el hilo único de @Scheduled también atiende la escritura diferida,
+// el relevo de la bandeja de salida y el autoescalado, y una exportación larga los detendría
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.particionado.habilitado", havingValue = "true")
+public class MantenimientoParticiones {
+
+    private static final String SQL_PARTICIONES = """
+            SELECT c.relname AS nombre, pg_get_expr(c.relpartbound, c.oid) AS limites,
+                   i.inhdetachpending AS separando
+              FROM pg_inherits i
+              JOIN pg_class c ON c.oid = i.inhrelid
+             WHERE i.inhparent = 'account.transacciones'::regclass
+            """;
+
+    // Particiones ya separadas que aún no se archivaron
+    private static final String SQL_SEPARADAS = """
+            SELECT c.relname
+              FROM pg_class c
+              JOIN pg_namespace n ON n.oid = c.relnamespace
+             WHERE n.nspname = 'account' AND c.relkind = 'r' AND NOT c.relispartition
+               AND (c.relname LIKE 'transacciones\\_p%' OR c.relname = 'transacciones_legado')
+            """;
+
+    // pg_get_expr devuelve los límites en la zona horaria de la sesión, con su desplazamiento
+    private static final Pattern LIMITE_SUPERIOR = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter FORMATO_LIMITE = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss[xxx][x]");
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("uuuuMM");
+
+    // Bloqueo de sesión que serializa el mantenimiento entre instancias del servicio
+    private static final long CLAVE_BLOQUEO = 0x4D53325F50415254L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcExportacion;
+    private final TransactionTemplate transaccionLectura;
+    private final TransactionTemplate transaccion;
+    private final Counter particionesArchivadas;
+    private final Counter filasArchivadas;
+    private final ExecutorService ejecutor;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    @Value("${transacciones.particionado.meses-adelante:2}")
+    private int mesesAdelante;
+
+    @Value("${transacciones.particionado.meses-retencion:24}")
+    private int mesesRetencion;
+
+    @Value("${transacciones.particionado.directorio-archivo:archivo/transacciones}")
+    private Path directorioArchivo;
+
+    public MantenimientoParticiones(JdbcTemplate jdbcTemplate, DataSource dataSource,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${transacciones.particionado.tamano-bloque:5000}") int tamanoBloque) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        // El driver de PostgreSQL solo usa cursor (fetch size) dentro de una transacción
+        this.jdbcExportacion = new JdbcTemplate(dataSource);
+        this.jdbcExportacion.setFetchSize(tamanoBloque);
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.particionesArchivadas = Counter.builder("transacciones.particiones.archivadas")
+                .description("Particiones del diario exportadas al archivo y eliminadas")
+                .register(meterRegistry);
+        this.filasArchivadas = Counter.builder("transacciones.particiones.filas_archivadas")
+                .description("Filas del diario exportadas al archivo")
+                .register(meterRegistry);
+        this.ejecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread hilo = new Thread(r, "mantenimiento-particiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PreDestroy
+    void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    // Al arrancar y según el cron solo se encola la ejecución: ni la disponibilidad del servicio
+    // ni el hilo de @Scheduled esperan a que termine. Si la anterior sigue en curso, se omite
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transacciones.particionado.cron:0 30 2 * * *}")
+    public void programar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            log.warn("MS2 EJECUTOR - Mantenimiento de particiones aún en curso; se omite este ciclo");
+            return;
+        }
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    ejecutar();
+                } finally {
+                    enCurso.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enCurso.set(false);
+        }
+    }
+
+    // Con varias instancias, solo la que obtiene el bloqueo consultivo separa, exporta y elimina;
+    // las demás omiten el ciclo. El bloqueo es de sesión, así que se mantiene una conexión propia
+    // durante todo el mantenimiento y se libera al cerrarla aunque el proceso termine a mitad
+    void ejecutar() {
+        try (Connection bloqueo = dataSource.getConnection()) {
+            bloqueo.setAutoCommit(true);
+            if (!bloqueoConsultivo(bloqueo, "pg_try_advisory_lock")) {
+                log.info("MS2 EJECUTOR - Otra instancia está ejecutando el mantenimiento de particiones");
+                return;
+            }
+            try {
+                List<Particion> particiones = particiones();
+                crearParticiones(particiones);
+                separarVencidas(particiones);
+                for (String tabla : jdbcTemplate.queryForList(SQL_SEPARADAS, String.class)) {
+                    archivar(tabla);
+                }
+            } finally {
+                bloqueoConsultivo(bloqueo, "pg_advisory_unlock");
+            }
+        } catch (Exception e) {
+            // Las particiones creadas con anticipación cubren los meses siguientes; se reintenta en el próximo ciclo
+            log.error("MS2 EJECUTOR - Error en el mantenimiento de particiones: {}", e.getMessage(), e);
+        }
+    }
+
+    private static boolean bloqueoConsultivo(Connection conexion, String funcion) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT " + funcion + "(?)")) {
+            sentencia.setLong(1, CLAVE_BLOQUEO);
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+
+    private List<Particion> particiones() {
+        return jdbcTemplate.query(SQL_PARTICIONES, (rs, rowNum) -> {
+            Matcher limite = LIMITE_SUPERIOR.matcher(rs.getString("limites"));
+            Instant superior = limite.find()
+                    ? OffsetDateTime.parse(limite.group(1), FORMATO_LIMITE).toInstant()
+                    : null;
+            return new Particion(rs.getString("nombre"), superior, rs.getBoolean("separando"));
+        });
+    }
+
+    // Crea los meses siguientes al último límite superior existente hasta meses-adelante
+    private void crearParticiones(List<Particion> particiones) {
+        YearMonth actual = YearMonth.now(ZoneOffset.UTC);
+        YearMonth mes = particiones.stream()
+                .map(Particion::limiteSuperior)
+                .filter(limite -> limite != null)
+                .max(Instant::compareTo)
+                .map(limite -> YearMonth.from(limite.atOffset(ZoneOffset.UTC)))
+                .orElse(actual);
+
+        for (; !mes.isAfter(actual.plusMonths(mesesAdelante)); mes = mes.plusMonths(1)) {
+            String tabla = "transacciones_p" + mes.format(FORMATO_NOMBRE);
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS account.%s PARTITION OF account.transacciones FOR VALUES FROM ('%s') TO ('%s')",
+                    tabla, inicio(mes), inicio(mes.plusMonths(1))));
+            log.info("MS2 EJECUTOR - Partición {} creada", tabla);
+        }
+    }
+
+    // DETACH CONCURRENTLY no puede ejecutarse dentro de una transacción: va en auto-commit
+    private void separarVencidas(List<Particion> particiones) {
+        Instant corte = inicio(YearMonth.now(ZoneOffset.UTC).minusMonths(mesesRetencion));
+        for (Particion particion : particiones) {
+            if (particion.separando()) {
+                // Un DETACH CONCURRENTLY anterior quedó a medias
+                jdbcTemplate.execute("ALTER TABLE account.transacciones DETACH PARTITION account."
+                        + particion.nombre() + " FINALIZE");
+            } else if (particion.limiteSuperior() != null && !particion.limiteSuperior().isAfter(corte)) {
+                jdbcTemplate.execute("ALTER TABLE account.transacciones DETACH PARTITION account."
+                        + particion.nombre() + " CONCURRENTLY");
+            } else {
+                continue;
+            }
+            log.info("MS2 EJECUTOR - Partición {} separada del diario", particion.nombre());
+        }
+    }
+
+    private void archivar(String tabla) throws IOException {
+        Files.createDirectories(directorioArchivo);
+        Path temporal = directorioArchivo.resolve(tabla + ".csv.gz.tmp");
+        Path destino = directorioArchivo.resolve(tabla + ".csv.gz");
+
+        long filas;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(temporal.toFile()), 64 * 1024), StandardCharsets.UTF_8))) {
+            filas = exportar(tabla, writer);
+        }
+        // El archivo debe estar en disco antes de eliminar la tabla
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        transaccion.executeWithoutResult(estado -> {
+            jdbcTemplate.update("DELETE FROM account.transacciones_claves_idempotencia k USING account." + tabla
+                    + " t WHERE k.clave_idempotencia = t.clave_idempotencia");
+            jdbcTemplate.execute("DROP TABLE account." + tabla);
+        });
+        particionesArchivadas.increment();
+        filasArchivadas.increment(filas);
+        log.info("MS2 EJECUTOR - Partición {} archivada en {}: {} filas", tabla, destino, filas);
+    }
+
+    private long exportar(String tabla, Writer writer) {
+        long[] filas = { 0 };
+        transaccionLectura.executeWithoutResult(estado -> jdbcExportacion.query(
+                "SELECT * FROM account." + tabla + " ORDER BY fecha_transaccion, id_transaccion", rs -> {
+                    try {
+                        ResultSetMetaData metadatos = rs.getMetaData();
+                        int columnas = metadatos.getColumnCount();
+                        if (filas[0] == 0) {
+                            for (int i = 1; i <= columnas; i++) {
+                                writer.write(i > 1 ? "," : "");
+                                writer.write(metadatos.getColumnName(i));
+                            }
+                            writer.write('\n');
+                        }
+                        for (int i = 1; i <= columnas; i++) {
+                            writer.write(i > 1 ? "," : "");
+                            writer.write(campoCsv(rs.getString(i)));
+                        }
+                        writer.write('\n');
+                        filas[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        return filas[0];
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private static Instant inicio(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private record Particion(String nombre, Instant limiteSuperior, boolean separando) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.cache.CacheAcotada;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
+import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import com.banquito.core.bank.transaction.repository.CuentaMetadatosProyeccion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Validación previa de cuentas: un mensaje para una cuenta inexistente, INACTIVA o BLOQUEADA
+// se rechaza antes de abrir la transacción y bloquear la fila (si está en caché, sin pedir
+// siquiera permiso de BD), así el tráfico inválido no agota el pool. Se guarda solo ID, número y estado (el saldo cambia en
+// cada mensaje y sigue validándose con la fila bloqueada). Las cuentas inexistentes y las que
+// no están ACTIVAS se guardan con un TTL corto (caché negativa): un rechazo es definitivo para
+// el mensaje, así que una reactivación no debe tardar el TTL completo en verse. Cada lectura bloqueada de la cuenta en
+// TransaccionesService o en los lotes actualiza la entrada tras el commit; los cambios de
+// estado hechos por otros sistemas se ven al vencer el TTL.
+// Un mensaje rechazado aquí sigue dejando su fila ERROR en el diario (y su evento en la bandeja
+// de salida) mediante TransaccionesService.registrarRechazo, que no toca la cuenta
+@Component
+@ConditionalOnProperty(name = "transacciones.cache-cuentas.habilitado", havingValue = "true")
+public class MetadatosCuentasCache {
+
+    // Marca de cuenta inexistente en la caché negativa
+    private static final CuentaMetadatosProyeccion AUSENTE = new CuentaMetadatosProyeccion(null, null, null);
+
+    private final CuentaClienteRepository cuentaClienteRepository;
+    private final CacheAcotada<String, CuentaMetadatosProyeccion> cuentas;
+    private final Duration ttlNegativo;
+    private final Counter rechazosInexistente;
+    private final Counter rechazosInactiva;
+
+    public MetadatosCuentasCache(CuentaClienteRepository cuentaClienteRepository, MeterRegistry meterRegistry,
+            @Value("${transacciones.cache-cuentas.capacidad:100000}") int capacidad,
+            @Value("${transacciones.cache-cuentas.ttl-ms:30000}") long ttlMs,
+            @Value("${transacciones.cache-cuentas.ttl-negativo-ms:5000}") long ttlNegativoMs,
+            @Value("${transacciones.cache-cuentas.segmentos:16}") int segmentos) {
+        this.cuentaClienteRepository = cuentaClienteRepository;
+        this.ttlNegativo = Duration.ofMillis(ttlNegativoMs);
+        this.cuentas = new CacheAcotada<String, CuentaMetadatosProyeccion>(capacidad, Duration.ofMillis(ttlMs),
+                segmentos).registrarMetricas(meterRegistry, "cuentas");
+        this.rechazosInexistente = Counter.builder("transacciones.cuentas.rechazos_previos")
+                .description("Mensajes rechazados antes de abrir la transacción de BD")
+                .tag("motivo", "inexistente")
+                .register(meterRegistry);
+        this.rechazosInactiva = Counter.builder("transacciones.cuentas.rechazos_previos")
+                .description("Mensajes rechazados antes de abrir la transacción de BD")
+                .tag("motivo", "inactiva")
+                .register(meterRegistry);
+    }
+
+    // Solo con lo que ya está en caché, sin tocar la BD: false si falta alguna de las cuentas y
+    // hay que llamar a validar, que la consulta (el consumidor lo hace con permiso de BD)
+    public boolean validarEnCache(TransaccionesSolicitudDTO dto) {
+        if (!validarEnCache(dto.getNumeroCuentaOrigen())) {
+            return false;
+        }
+        return !validaDestino(dto) || validarEnCache(dto.getNumeroCuentaDestino());
+    }
+
+    // Lanza la misma excepción que la ruta con bloqueo; la cuenta destino solo en transferencias
+    public void validar(TransaccionesSolicitudDTO dto) {
+        validarCuenta(dto.getNumeroCuentaOrigen(), consultar(dto.getNumeroCuentaOrigen()));
+        if (validaDestino(dto)) {
+            validarCuenta(dto.getNumeroCuentaDestino(), consultar(dto.getNumeroCuentaDestino()));
+        }
+    }
+
+    // Resultado de una lectura de la cuenta dentro de la transacción del servicio
+    public void actualizar(String numeroCuenta, Optional<CuentaCliente> cuenta) {
+        CuentaMetadatosProyeccion metadatos = cuenta
+                .map(c -> new CuentaMetadatosProyeccion(c.getId(), c.getNumeroCuenta(), c.getEstado()))
+                .orElse(AUSENTE);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guardar(numeroCuenta, metadatos);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guardar(numeroCuenta, metadatos);
+            }
+        });
+    }
+
+    private static boolean validaDestino(TransaccionesSolicitudDTO dto) {
+        return "TRANSFERENCIA".equals(dto.getTipoTransaccion()) && dto.getNumeroCuentaDestino() != null;
+    }
+
+    private boolean validarEnCache(String numeroCuenta) {
+        CuentaMetadatosProyeccion cuenta = cuentas.obtener(numeroCuenta);
+        if (cuenta == null) {
+            return false;
+        }
+        validarCuenta(numeroCuenta, cuenta);
+        return true;
+    }
+
+    private void validarCuenta(String numeroCuenta, CuentaMetadatosProyeccion cuenta) {
+        if (cuenta == AUSENTE) {
+            rechazosInexistente.increment();
+            throw new CuentaNoEncontradaException("Cuenta no encontrada con número: " + numeroCuenta);
+        }
+        if (cuenta.estado() != CuentaCliente.EstadoCuentaClienteEnum.ACTIVO) {
+            rechazosInactiva.increment();
+            throw new TransaccionException(String.format("La cuenta %d no está activa. Estado actual: %s",
+                    cuenta.id(), cuenta.estado()));
+        }
+    }
+
+    private CuentaMetadatosProyeccion consultar(String numeroCuenta) {
+        CuentaMetadatosProyeccion cuenta = cuentas.obtener(numeroCuenta);
+        if (cuenta != null) {
+            return cuenta;
+        }
+        cuenta = cuentaClienteRepository.findMetadatosByNumeroCuenta(numeroCuenta).orElse(AUSENTE);
+        guardar(numeroCuenta, cuenta);
+        return cuenta;
+    }
+
+    private void guardar(String numeroCuenta, CuentaMetadatosProyeccion cuenta) {
+        if (cuenta == AUSENTE || cuenta.estado() != CuentaCliente.EstadoCuentaClienteEnum.ACTIVO) {
+            cuentas.poner(numeroCuenta, cuenta, ttlNegativo);
+        } else {
+            cuentas.poner(numeroCuenta, cuenta);
+        }
+    }
+}
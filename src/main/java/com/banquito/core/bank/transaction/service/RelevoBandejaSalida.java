@@ -0,0 +1,167 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionRespuestaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.TextMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publica la bandeja de salida en la cola de resultados para que MS1 no tenga que consultar
+// /estado. Cada ciclo toma hasta tamano-lote eventos por su orden (asignado por la BD con la
+// cuenta ya bloqueada, ver EventoResultado) con FOR UPDATE, los envía
+// en una sesión JMS transaccional con un solo commit y después los borra en la misma
+// transacción de BD. Sin SKIP LOCKED a propósito: si hay varias instancias, los lotes se
+// publican uno tras otro y se conserva el orden por cuenta; JMSXGroupID = número de cuenta
+// hace que el broker entregue los eventos de una cuenta a un solo consumidor y en orden.
+// Entrega al menos una vez: si la BD falla después del commit JMS, el lote se reenvía y MS1
+// debe descartar duplicados por transaccionId
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "transacciones.bandeja-salida.habilitado", havingValue = "true")
+public class RelevoBandejaSalida {
+
+    private static final String SQL_PENDIENTES = "SELECT id_evento, id_transaccion, numero_cuenta, tipo_transaccion, "
+            + "estado, monto, descripcion, clave_idempotencia, fecha_transaccion, fecha_registro "
+            + "FROM account.eventos_resultado ORDER BY orden LIMIT ? FOR UPDATE";
+
+    private static final String SQL_BORRAR = "DELETE FROM account.eventos_resultado WHERE id_evento = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final JmsTemplate plantillaTransaccional;
+    private final ObjectMapper objectMapper;
+
+    @Value("${colas.transacciones.resultados}")
+    private String colaResultados;
+
+    @Value("${transacciones.bandeja-salida.tamano-lote:100}")
+    private int tamanoLote;
+
+    private final Timer retraso;
+    private final Counter publicados;
+    private final Counter erroresPublicacion;
+    // Antigüedad del evento más viejo sin publicar al inicio del último ciclo
+    private final AtomicLong antiguedadMs = new AtomicLong();
+
+    public RelevoBandejaSalida(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ConnectionFactory connectionFactory, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.plantillaTransaccional = new JmsTemplate(connectionFactory);
+        this.plantillaTransaccional.setSessionTransacted(true);
+        this.objectMapper = objectMapper;
+
+        this.retraso = Timer.builder("transacciones.bandeja.retraso")
+                .description("Tiempo desde el commit del resultado hasta su publicación a MS1")
+                .register(meterRegistry);
+        this.publicados = Counter.builder("transacciones.bandeja.publicados")
+                .description("Eventos de resultado publicados a MS1")
+                .register(meterRegistry);
+        this.erroresPublicacion = Counter.builder("transacciones.bandeja.errores")
+                .description("Ciclos del relevo que fallaron y se reintentarán")
+                .register(meterRegistry);
+        Gauge.builder("transacciones.bandeja.antiguedad", antiguedadMs, AtomicLong::get)
+                .description("Antigüedad del evento más viejo pendiente de publicar")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${transacciones.bandeja-salida.intervalo-ms:200}")
+    public void relevar() {
+        try {
+            Integer enviados;
+            do {
+                enviados = transaccion.execute(estado -> publicarLote());
+            } while (enviados != null && enviados == tamanoLote);
+        } catch (RuntimeException e) {
+            erroresPublicacion.increment();
+            log.error("MS2 EJECUTOR - Error publicando resultados a MS1, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    private int publicarLote() {
+        List<Pendiente> eventos = jdbcTemplate.query(SQL_PENDIENTES, (rs, rowNum) -> new Pendiente(
+                rs.getLong("id_evento"),
+                rs.getString("numero_cuenta"),
+                rs.getString("clave_idempotencia"),
+                TransaccionRespuestaDTO.builder()
+                        .transaccionId(rs.getLong("id_transaccion"))
+                        .estado(rs.getString("estado"))
+                        .tipoTransaccion(rs.getString("tipo_transaccion"))
+                        .monto(Dinero.de(rs.getBigDecimal("monto")))
+                        .descripcion(rs.getString("descripcion"))
+                        .fechaTransaccion(rs.getObject("fecha_transaccion", OffsetDateTime.class).toInstant())
+                        .mensajeError("ERROR".equals(rs.getString("estado")) ? "Error en el procesamiento" : null)
+                        .build(),
+                rs.getObject("fecha_registro", OffsetDateTime.class).toInstant()), tamanoLote);
+
+        Instant ahora = Instant.now();
+        antiguedadMs.set(eventos.isEmpty() ? 0 : Duration.between(eventos.get(0).fechaRegistro(), ahora).toMillis());
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+
+        plantillaTransaccional.execute(session -> {
+            MessageProducer productor = session.createProducer(session.createQueue(colaResultados));
+            try {
+                for (Pendiente evento : eventos) {
+                    TextMessage mensaje = session.createTextMessage(serializar(evento.resultado()));
+                    mensaje.setStringProperty("JMSXGroupID", evento.numeroCuenta());
+                    mensaje.setJMSCorrelationID(evento.claveIdempotencia());
+                    mensaje.setLongProperty("transaccionId", evento.resultado().getTransaccionId());
+                    productor.send(mensaje);
+                }
+                // Un solo commit JMS por lote
+                session.commit();
+            } finally {
+                JmsUtils.closeMessageProducer(productor);
+            }
+            return null;
+        }, false);
+
+        jdbcTemplate.batchUpdate(SQL_BORRAR, eventos, eventos.size(),
+                (ps, evento) -> ps.setLong(1, evento.id()));
+
+        Instant publicado = Instant.now();
+        for (Pendiente evento : eventos) {
+            retraso.record(Duration.between(evento.fechaRegistro(), publicado));
+        }
+        publicados.increment(eventos.size());
+        log.debug("MS2 EJECUTOR - {} resultados publicados en {}", eventos.size(), colaResultados);
+        return eventos.size();
+    }
+
+    private String serializar(TransaccionRespuestaDTO resultado) {
+        try {
+            return objectMapper.writeValueAsString(resultado);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el resultado " + resultado.getTransaccionId(), e);
+        }
+    }
+
+    private record Pendiente(long id, String numeroCuenta, String claveIdempotencia, TransaccionRespuestaDTO resultado,
+            Instant fechaRegistro) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+public class SaldosPendientesService {
+
+    private final TransaccionesRepository transaccionesRepository;
+    private final CuentaClienteRepository cuentaClienteRepository;
+    // Antigüedad máxima de un movimiento pendiente para el ciclo y los retiros: con el diario
+    // particionado solo se revisan las particiones recientes. Lo más antiguo lo aplica la
+    // recuperación del arranque, que no tiene límite
+    private final Duration ventanaPendientes;
+
+    public SaldosPendientesService(TransaccionesRepository transaccionesRepository,
+            CuentaClienteRepository cuentaClienteRepository,
+            @Value("${transacciones.escritura-diferida.ventana-pendientes-horas:24}") long ventanaPendientesHoras) {
+        this.transaccionesRepository = transaccionesRepository;
+        this.cuentaClienteRepository = cuentaClienteRepository;
+        this.ventanaPendientes = Duration.ofHours(ventanaPendientesHoras);
+    }
+
+    // Aplica al saldo de la cuenta todos los movimientos del diario marcados como
+    // saldo_pendiente. Las filas se reclaman con FOR UPDATE, así que dos instancias
+    // (o la recuperación tras una caída) nunca aplican el mismo movimiento dos veces.
+    // Bloquea la cuenta antes que las filas del diario, en el mismo orden que los retiros
+    // y transferencias que llaman a reclamarPendientes
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int aplicarPendientes(String numeroCuenta) {
+        return aplicar(numeroCuenta, Instant.now().minus(ventanaPendientes));
+    }
+
+    // Tras una caída: todos los pendientes de la cuenta, sin importar su antigüedad
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int recuperarPendientes(String numeroCuenta) {
+        return aplicar(numeroCuenta, Instant.EPOCH);
+    }
+
+    private int aplicar(String numeroCuenta, Instant desde) {
+        if (cuentaClienteRepository.findByNumeroCuentaWithLock(numeroCuenta).isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        Dinero delta = reclamar(numeroCuenta, desde, ids);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        cuentaClienteRepository.acumularSaldo(numeroCuenta, delta);
+
+        log.info("Saldo diferido aplicado - Cuenta: {}, Movimientos: {}, Delta: {}", numeroCuenta, ids.size(), delta);
+        return ids.size();
+    }
+
+    // Dentro de la transacción del llamador, que ya tiene bloqueada la fila de la cuenta:
+    // marca los movimientos pendientes como aplicados y devuelve su suma para que el
+    // llamador la incorpore a la entidad. No pide una segunda conexión del pool
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Dinero reclamarPendientes(String numeroCuenta) {
+        List<Long> ids = new ArrayList<>();
+        Dinero delta = reclamar(numeroCuenta, Instant.now().minus(ventanaPendientes), ids);
+        if (!ids.isEmpty()) {
+            log.info("Saldo diferido incorporado - Cuenta: {}, Movimientos: {}, Delta: {}", numeroCuenta, ids.size(),
+                    delta);
+        }
+        return delta;
+    }
+
+    private Dinero reclamar(String numeroCuenta, Instant desde, List<Long> ids) {
+        List<Transacciones> pendientes = transaccionesRepository.findSaldoPendienteWithLock(numeroCuenta, desde);
+        if (pendientes.isEmpty()) {
+            return Dinero.CERO;
+        }
+
+        long delta = 0;
+        Instant primera = pendientes.get(0).getFechaTransaccion();
+        Instant ultima = primera;
+        for (Transacciones transaccion : pendientes) {
+            long centavos = transaccion.getMonto().centavos();
+            delta = transaccion.getTipoTransaccion() == Transacciones.TipoTransaccionEnum.RETIRO
+                    ? Math.subtractExact(delta, centavos)
+                    : Math.addExact(delta, centavos);
+            ids.add(transaccion.getId());
+            Instant fecha = transaccion.getFechaTransaccion();
+            primera = fecha.isBefore(primera) ? fecha : primera;
+            ultima = fecha.isAfter(ultima) ? fecha : ultima;
+        }
+        // El rango de fechas poda particiones: el IN por ID solo no lo permite
+        transaccionesRepository.marcarSaldoAplicado(ids, primera, ultima);
+        return Dinero.deCentavos(delta);
+    }
+
+    public List<String> cuentasConSaldoPendiente() {
+        return transaccionesRepository.findCuentasConSaldoPendiente();
+    }
+}
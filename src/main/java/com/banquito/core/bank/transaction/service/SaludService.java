@@ -0,0 +1,220 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dto.SaludSistemaDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sondas baratas para el balanceador y los operadores: validación de una conexión del pool
+// (Connection.isValid, el equivalente a SELECT 1), apertura de una conexión al broker y
+// saturación de Hikari leída de su MXBean. El resultado se reutiliza durante cache-ms, y solo
+// un hilo lo refresca a la vez: el resto devuelve el último resultado en lugar de encolarse.
+// Cada sonda con E/S corre en un hilo propio con timeout-ms, así un broker o una BD colgados
+// responden DOWN a tiempo en lugar de retener el hilo HTTP. El interrupt del timeout no corta
+// todas las E/S de JDBC o JMS, así que cada sonda tiene a lo sumo una ejecución en curso: si la
+// anterior sigue colgada se responde DOWN sin encolar otra detrás de ella
+@Service
+@Slf4j
+public class SaludService {
+
+    public static final String UP = "UP";
+    public static final String DEGRADED = "DEGRADED";
+    public static final String DOWN = "DOWN";
+
+    private final DataSource dataSource;
+    // Fábrica física y no la CachingConnectionFactory (@Primary): esa reutiliza una conexión ya
+    // abierta y su close() no cierra nada, así que la sonda nunca llegaría al broker
+    private final ActiveMQConnectionFactory connectionFactory;
+    private final ExecutorService sondas;
+    private final ReentrantLock refresco = new ReentrantLock();
+    private final AtomicBoolean sondaBdEnCurso = new AtomicBoolean();
+    private final AtomicBoolean sondaBrokerEnCurso = new AtomicBoolean();
+
+    @Value("${transacciones.salud.cache-ms:2000}")
+    private long cacheMs;
+
+    @Value("${transacciones.salud.timeout-ms:1000}")
+    private long timeoutMs;
+
+    private volatile SaludSistemaDTO ultima;
+    private volatile long ultimaNanos;
+
+    public SaludService(DataSource dataSource, ActiveMQConnectionFactory connectionFactory) {
+        this.dataSource = dataSource;
+        this.connectionFactory = connectionFactory;
+        AtomicInteger contador = new AtomicInteger();
+        this.sondas = Executors.newFixedThreadPool(2, r -> {
+            Thread hilo = new Thread(r, "sonda-salud-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PreDestroy
+    void detener() {
+        sondas.shutdownNow();
+    }
+
+    public SaludSistemaDTO consultar() {
+        SaludSistemaDTO actual = ultima;
+        if (actual != null && vigente()) {
+            return actual;
+        }
+        if (!refresco.tryLock()) {
+            if (actual != null) {
+                return actual;
+            }
+            refresco.lock();
+        }
+        try {
+            // Otro hilo pudo refrescar mientras se esperaba el candado
+            if (ultima != null && vigente()) {
+                return ultima;
+            }
+            SaludSistemaDTO nueva = verificar();
+            ultima = nueva;
+            ultimaNanos = System.nanoTime();
+            if (!UP.equals(nueva.getEstado())) {
+                log.warn("MS2 EJECUTOR - Salud {}: {}", nueva.getEstado(), nueva.getSondas());
+            }
+            return nueva;
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    private boolean vigente() {
+        return System.nanoTime() - ultimaNanos < TimeUnit.MILLISECONDS.toNanos(cacheMs);
+    }
+
+    private SaludSistemaDTO verificar() {
+        SaludSistemaDTO.Sonda pool = sondaPool();
+        // Con el pool saturado no se toma otra conexión: la sonda competiría con los consumidores
+        Future<SaludSistemaDTO.Sonda> bd = DEGRADED.equals(pool.getEstado()) ? null
+                : lanzar(sondaBdEnCurso, this::sondaBd);
+        Future<SaludSistemaDTO.Sonda> broker = lanzar(sondaBrokerEnCurso, this::sondaBroker);
+
+        Map<String, SaludSistemaDTO.Sonda> resultado = new LinkedHashMap<>();
+        if (DEGRADED.equals(pool.getEstado())) {
+            resultado.put("bd", new SaludSistemaDTO.Sonda(DEGRADED, 0, "Omitida: pool de conexiones saturado"));
+        } else {
+            resultado.put("bd", esperar(bd));
+        }
+        resultado.put("broker", esperar(broker));
+        resultado.put("pool", pool);
+
+        String estado = UP;
+        if (DOWN.equals(resultado.get("bd").getEstado()) || DOWN.equals(resultado.get("broker").getEstado())) {
+            estado = DOWN;
+        } else if (resultado.values().stream().anyMatch(sonda -> !UP.equals(sonda.getEstado()))) {
+            estado = DEGRADED;
+        }
+        return SaludSistemaDTO.builder()
+                .estado(estado)
+                .verificadoEn(Instant.now())
+                .sondas(resultado)
+                .build();
+    }
+
+    // null si la ejecución anterior de la sonda todavía no terminó
+    private Future<SaludSistemaDTO.Sonda> lanzar(AtomicBoolean enCurso, Supplier<SaludSistemaDTO.Sonda> sonda) {
+        if (!enCurso.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return sondas.submit(() -> {
+                try {
+                    return sonda.get();
+                } finally {
+                    enCurso.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            enCurso.set(false);
+            throw e;
+        }
+    }
+
+    private SaludSistemaDTO.Sonda esperar(Future<SaludSistemaDTO.Sonda> sonda) {
+        if (sonda == null) {
+            return new SaludSistemaDTO.Sonda(DOWN, 0, "Sin respuesta: la verificación anterior sigue en curso");
+        }
+        try {
+            return sonda.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            sonda.cancel(true);
+            return new SaludSistemaDTO.Sonda(DOWN, timeoutMs, "Sin respuesta en " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            sonda.cancel(true);
+            Thread.currentThread().interrupt();
+            return new SaludSistemaDTO.Sonda(DOWN, 0, "Interrumpida");
+        } catch (ExecutionException e) {
+            return new SaludSistemaDTO.Sonda(DOWN, 0, String.valueOf(e.getCause().getMessage()));
+        }
+    }
+
+    private SaludSistemaDTO.Sonda sondaBd() {
+        return medir(() -> {
+            try (Connection conexion = dataSource.getConnection()) {
+                int timeoutSegundos = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs));
+                return conexion.isValid(timeoutSegundos) ? UP : DOWN;
+            }
+        });
+    }
+
+    private SaludSistemaDTO.Sonda sondaBroker() {
+        return medir(() -> {
+            // start() envía la información de la conexión y espera la respuesta del broker
+            try (jakarta.jms.Connection conexion = connectionFactory.createConnection()) {
+                conexion.start();
+                return UP;
+            }
+        });
+    }
+
+    private SaludSistemaDTO.Sonda medir(Callable<String> sonda) {
+        long inicio = System.nanoTime();
+        String estado;
+        String detalle = null;
+        try {
+            estado = sonda.call();
+        } catch (Exception e) {
+            estado = DOWN;
+            detalle = e.getMessage();
+        }
+        return new SaludSistemaDTO.Sonda(estado, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), detalle);
+    }
+
+    // Sin E/S: solo lee contadores del pool
+    private SaludSistemaDTO.Sonda sondaPool() {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return new SaludSistemaDTO.Sonda(UP, 0, "Sin estadísticas del pool");
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int esperando = pool.getThreadsAwaitingConnection();
+        String detalle = String.format("activas=%d, inactivas=%d, esperando=%d, maximo=%d",
+                pool.getActiveConnections(), pool.getIdleConnections(), esperando, hikari.getMaximumPoolSize());
+        return new SaludSistemaDTO.Sonda(esperando > 0 ? DEGRADED : UP, 0, detalle);
+    }
+}
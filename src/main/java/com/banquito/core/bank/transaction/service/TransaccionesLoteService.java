@@ -0,0 +1,214 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.id.GeneradorIdTemporal;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class TransaccionesLoteService {
+
+    private static final String SQL_INSERTAR_TRANSACCION = "INSERT INTO account.transacciones "
+            + "(id_transaccion, numero_cuenta_origen, numero_cuenta_destino, tipo_transaccion, monto, descripcion, "
+            + "fecha_transaccion, estado, clave_idempotencia, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final CuentaClienteRepository cuentaClienteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransaccionesMetricas metricas;
+    private final EstadoTransaccionesCache estadoTransacciones;
+    private final GeneradorIdTemporal generadorId;
+    // Solo presente con transacciones.bandeja-salida.habilitado=true
+    private final BandejaSalidaResultados bandejaSalida;
+    // Solo presente con transacciones.cache-cuentas.habilitado=true
+    private final MetadatosCuentasCache metadatosCuentas;
+    // Solo presente con transacciones.escritura-diferida.habilitado=true
+    private final EscrituraDiferidaSaldos escrituraDiferida;
+
+    public TransaccionesLoteService(CuentaClienteRepository cuentaClienteRepository, JdbcTemplate jdbcTemplate,
+            TransaccionesMetricas metricas, EstadoTransaccionesCache estadoTransacciones,
+            GeneradorIdTemporal generadorId, ObjectProvider<BandejaSalidaResultados> bandejaSalida,
+            ObjectProvider<MetadatosCuentasCache> metadatosCuentas,
+            ObjectProvider<EscrituraDiferidaSaldos> escrituraDiferida) {
+        this.cuentaClienteRepository = cuentaClienteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricas = metricas;
+        this.estadoTransacciones = estadoTransacciones;
+        this.generadorId = generadorId;
+        this.bandejaSalida = bandejaSalida.getIfAvailable();
+        this.metadatosCuentas = metadatosCuentas.getIfAvailable();
+        this.escrituraDiferida = escrituraDiferida.getIfAvailable();
+    }
+
+    // Ejecuta todo el lote en una sola transacción de BD. Los errores de negocio
+    // quedan registrados como ERROR sin abortar el lote; cualquier error técnico
+    // revierte el lote completo para que el consumidor lo reprocese mensaje a mensaje
+    @Transactional
+    public List<Transacciones> procesarLote(List<TransaccionesSolicitudDTO> lote) {
+        log.info("MS2 EJECUTOR - Procesando lote de {} transacciones", lote.size());
+
+        // Cada cuenta se bloquea una sola vez y en orden de número de cuenta para
+        // evitar deadlocks entre lotes concurrentes; en transferencias también la destino
+        Map<String, CuentaCliente> cuentas = new HashMap<>();
+        lote.stream()
+                .flatMap(dto -> "TRANSFERENCIA".equals(dto.getTipoTransaccion()) && dto.getNumeroCuentaDestino() != null
+                        ? Stream.of(dto.getNumeroCuentaOrigen(), dto.getNumeroCuentaDestino())
+                        : Stream.of(dto.getNumeroCuentaOrigen()))
+                .distinct()
+                .sorted()
+                .forEach(numeroCuenta -> {
+                    Optional<CuentaCliente> cuenta = metricas.medirEsperaBloqueo(
+                            () -> cuentaClienteRepository.findByNumeroCuentaWithLock(numeroCuenta));
+                    cuenta.ifPresent(c -> cuentas.put(numeroCuenta, incorporarSaldoPendiente(c)));
+                    if (metadatosCuentas != null) {
+                        metadatosCuentas.actualizar(numeroCuenta, cuenta);
+                    }
+                });
+
+        List<Transacciones> transacciones = new ArrayList<>(lote.size());
+        for (TransaccionesSolicitudDTO dto : lote) {
+            transacciones.add(aplicar(dto, cuentas.get(dto.getNumeroCuentaOrigen()),
+                    dto.getNumeroCuentaDestino() != null ? cuentas.get(dto.getNumeroCuentaDestino()) : null));
+        }
+
+        // Los saldos se actualizan en el flush del commit; el diario se inserta por lotes JDBC
+        insertarTransacciones(transacciones);
+        if (bandejaSalida != null) {
+            bandejaSalida.registrar(transacciones);
+        }
+        transacciones.forEach(estadoTransacciones::actualizar);
+
+        log.info("MS2 EJECUTOR - Lote ejecutado: {} transacciones, {} cuentas", transacciones.size(),
+                cuentas.size());
+        return transacciones;
+    }
+
+    // Cuenta caliente: los depósitos diferidos aún no aplicados cuentan para validar fondos; se
+    // reclaman en esta misma transacción, con la fila de la cuenta ya bloqueada
+    private CuentaCliente incorporarSaldoPendiente(CuentaCliente cuenta) {
+        if (escrituraDiferida != null && escrituraDiferida.esCuentaCaliente(cuenta.getNumeroCuenta())) {
+            Dinero pendiente = escrituraDiferida.reclamarPendientes(cuenta.getNumeroCuenta());
+            if (!pendiente.equals(Dinero.CERO)) {
+                cuenta.setSaldo(cuenta.getSaldo().sumar(pendiente));
+            }
+        }
+        return cuenta;
+    }
+
+    private Transacciones aplicar(TransaccionesSolicitudDTO dto, CuentaCliente cuenta, CuentaCliente destino) {
+        Transacciones.TipoTransaccionEnum tipo = Transacciones.TipoTransaccionEnum.valueOf(dto.getTipoTransaccion());
+        Transacciones transaccion = Transacciones.builder()
+                .id(generadorId.siguiente())
+                .numeroCuentaOrigen(dto.getNumeroCuentaOrigen())
+                .numeroCuentaDestino(dto.getNumeroCuentaDestino())
+                .tipoTransaccion(tipo)
+                .monto(dto.getMonto())
+                .descripcion(dto.getDescripcion())
+                .claveIdempotencia(dto.getClaveIdempotencia())
+                .fechaTransaccion(Instant.now().truncatedTo(ChronoUnit.MICROS))
+                .estado(Transacciones.EstadoTransaccionesEnum.ERROR)
+                .version(0L)
+                .build();
+
+        if (cuenta == null) {
+            log.error("MS2 EJECUTOR - Cuenta no encontrada con número: {}", dto.getNumeroCuentaOrigen());
+            return transaccion;
+        }
+        if (!cuenta.isActiva()) {
+            log.error("MS2 EJECUTOR - La cuenta {} no está activa. Estado actual: {}", cuenta.getId(),
+                    cuenta.getEstado());
+            return transaccion;
+        }
+
+        Dinero saldoAnterior = cuenta.getSaldo();
+        Dinero nuevoSaldo;
+        switch (tipo) {
+            case DEPOSITO:
+                nuevoSaldo = saldoAnterior.sumar(dto.getMonto());
+                break;
+            case RETIRO:
+                if (saldoAnterior.esMenorQue(dto.getMonto())) {
+                    log.warn("ALERTA: Saldo insuficiente al ejecutar retiro. Cuenta: {}, Saldo: {}, Monto: {}",
+                            cuenta.getNumeroCuenta(), saldoAnterior, dto.getMonto());
+                    return transaccion;
+                }
+                nuevoSaldo = saldoAnterior.restar(dto.getMonto());
+                break;
+            case TRANSFERENCIA:
+                if (destino == null || destino == cuenta) {
+                    log.error("MS2 EJECUTOR - Cuenta destino no válida para transferencia en lote: {}",
+                            dto.getNumeroCuentaDestino());
+                    return transaccion;
+                }
+                if (!destino.isActiva()) {
+                    log.error("MS2 EJECUTOR - La cuenta {} no está activa. Estado actual: {}", destino.getId(),
+                            destino.getEstado());
+                    return transaccion;
+                }
+                if (saldoAnterior.esMenorQue(dto.getMonto())) {
+                    log.warn("ALERTA: Saldo insuficiente al ejecutar transferencia. Cuenta: {}, Saldo: {}, Monto: {}",
+                            cuenta.getNumeroCuenta(), saldoAnterior, dto.getMonto());
+                    return transaccion;
+                }
+                nuevoSaldo = saldoAnterior.restar(dto.getMonto());
+                destino.setSaldo(destino.getSaldo().sumar(dto.getMonto()));
+                break;
+            default:
+                log.error("MS2 EJECUTOR - Tipo de transacción no válido en lote: {}", tipo);
+                return transaccion;
+        }
+
+        cuenta.setSaldo(nuevoSaldo);
+        transaccion.setEstado(Transacciones.EstadoTransaccionesEnum.COMPLETADA);
+
+        log.debug("{} ejecutado en lote - Cuenta: {}, Saldo anterior: {}, Monto: {}, Nuevo saldo: {}",
+                tipo, cuenta.getNumeroCuenta(), saldoAnterior, dto.getMonto(), nuevoSaldo);
+        return transaccion;
+    }
+
+    // Los IDs ya vienen asignados, así que no hace falta leer claves generadas
+    private void insertarTransacciones(List<Transacciones> transacciones) {
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_TRANSACCION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Transacciones t = transacciones.get(i);
+                ps.setLong(1, t.getId());
+                ps.setString(2, t.getNumeroCuentaOrigen());
+                ps.setString(3, t.getNumeroCuentaDestino());
+                ps.setString(4, t.getTipoTransaccion().name());
+                ps.setBigDecimal(5, t.getMonto().aBigDecimal());
+                ps.setString(6, t.getDescripcion());
+                ps.setObject(7, OffsetDateTime.ofInstant(t.getFechaTransaccion(), ZoneOffset.UTC));
+                ps.setString(8, t.getEstado().name());
+                ps.setString(9, t.getClaveIdempotencia());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return transacciones.size();
+            }
+        });
+    }
+}
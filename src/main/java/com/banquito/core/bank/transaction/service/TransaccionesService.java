@@ -1,18 +1,21 @@
 package com.banquito.core.bank.transaction.service;
 
+import com.banquito.core.bank.transaction.dinero.Dinero;
 import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
 import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
 import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
 import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.metricas.TransaccionesMetricas;
 import com.banquito.core.bank.transaction.model.CuentaCliente;
 import com.banquito.core.bank.transaction.model.Transacciones;
 import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
 import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -20,20 +23,51 @@ public class TransaccionesService {
 
     private final TransaccionesRepository transaccionesRepository;
     private final CuentaClienteRepository cuentaClienteRepository;
+    private final TransaccionesMetricas metricas;
+    private final EstadoTransaccionesCache estadoTransacciones;
+    // Solo presente con transacciones.escritura-diferida.habilitado=true
+    private final EscrituraDiferidaSaldos escrituraDiferida;
+    // Solo presente con transacciones.bandeja-salida.habilitado=true
+    private final BandejaSalidaResultados bandejaSalida;
+    // Solo presente con transacciones.cache-cuentas.habilitado=true
+    private final MetadatosCuentasCache metadatosCuentas;
 
     public TransaccionesService(TransaccionesRepository transaccionesRepository,
-            CuentaClienteRepository cuentaClienteRepository) {
+            CuentaClienteRepository cuentaClienteRepository, TransaccionesMetricas metricas,
+            EstadoTransaccionesCache estadoTransacciones, ObjectProvider<EscrituraDiferidaSaldos> escrituraDiferida,
+            ObjectProvider<BandejaSalidaResultados> bandejaSalida, ObjectProvider<MetadatosCuentasCache> metadatosCuentas) {
         this.transaccionesRepository = transaccionesRepository;
         this.cuentaClienteRepository = cuentaClienteRepository;
+        this.metricas = metricas;
+        this.estadoTransacciones = estadoTransacciones;
+        this.escrituraDiferida = escrituraDiferida.getIfAvailable();
+        this.bandejaSalida = bandejaSalida.getIfAvailable();
+        this.metadatosCuentas = metadatosCuentas.getIfAvailable();
     }
 
-    @Transactional
+    // Los errores de negocio no revierten: el registro queda persistido en ERROR
+    @Transactional(noRollbackFor = { SaldoInsuficienteException.class, CuentaNoEncontradaException.class,
+            TransaccionException.class })
     public Transacciones procesar(TransaccionesSolicitudDTO dto) {
+        return ejecutar(dto, true);
+    }
+
+    // Variante para los carriles por cuenta: el carril ya serializa las operaciones de
+    // la cuenta, así que se omite el SELECT ... FOR UPDATE y la concurrencia con otros
+    // escritores queda cubierta por el @Version de CuentaCliente
+    @Transactional(noRollbackFor = { SaldoInsuficienteException.class, CuentaNoEncontradaException.class,
+            TransaccionException.class })
+    public Transacciones procesarSinBloqueo(TransaccionesSolicitudDTO dto) {
+        return ejecutar(dto, false);
+    }
+
+    private Transacciones ejecutar(TransaccionesSolicitudDTO dto, boolean conBloqueo) {
         log.info("MS2 EJECUTOR - Procesando transacción: tipo={}, monto={}, cuenta={}",
                 dto.getTipoTransaccion(), dto.getMonto(), dto.getNumeroCuentaOrigen());
 
         // Crear registro de transacción
         Transacciones transaccion = crearTransaccion(dto);
+        metricas.medirCommit(transaccion.getTipoTransaccion());
 
         try {
             // MS2 como EJECUTOR: Procesa la transacción SIN validaciones complejas de
@@ -41,10 +75,17 @@ public class TransaccionesService {
             // MS1 ya validó todo, nosotros solo ejecutamos la operación
             switch (Transacciones.TipoTransaccionEnum.valueOf(dto.getTipoTransaccion())) {
                 case DEPOSITO:
-                    procesarDeposito(dto);
+                    if (esCuentaCaliente(dto.getNumeroCuentaOrigen())) {
+                        procesarDepositoDiferido(dto, transaccion);
+                    } else {
+                        procesarDeposito(dto, conBloqueo);
+                    }
                     break;
                 case RETIRO:
-                    procesarRetiro(dto);
+                    procesarRetiro(dto, conBloqueo);
+                    break;
+                case TRANSFERENCIA:
+                    procesarTransferencia(dto);
                     break;
                 default:
                     throw new TransaccionException("Tipo de transacción no válido: " + dto.getTipoTransaccion());
@@ -66,52 +107,96 @@ public class TransaccionesService {
         } finally {
             // Guardar el estado final de la transacción
             transaccion = transaccionesRepository.save(transaccion);
+            // Mismo commit que el estado final: si la transacción se revierte, el evento también
+            if (bandejaSalida != null) {
+                bandejaSalida.registrar(transaccion);
+            }
+            estadoTransacciones.actualizar(transaccion);
         }
 
         return transaccion;
     }
 
+    // Rechazo previo de MetadatosCuentasCache (cuenta inexistente o no activa): deja la misma
+    // fila ERROR, el mismo evento de la bandeja de salida y la misma entrada de estado que la
+    // ruta con bloqueo, en una transacción corta que no lee ni bloquea la cuenta
+    @Transactional
+    public Transacciones registrarRechazo(TransaccionesSolicitudDTO dto) {
+        Transacciones transaccion = crearTransaccion(dto, Transacciones.EstadoTransaccionesEnum.ERROR);
+        if (bandejaSalida != null) {
+            bandejaSalida.registrar(transaccion);
+        }
+        estadoTransacciones.actualizar(transaccion);
+        return transaccion;
+    }
+
     private Transacciones crearTransaccion(TransaccionesSolicitudDTO dto) {
+        return crearTransaccion(dto, Transacciones.EstadoTransaccionesEnum.PENDIENTE);
+    }
+
+    private Transacciones crearTransaccion(TransaccionesSolicitudDTO dto, Transacciones.EstadoTransaccionesEnum estado) {
         return transaccionesRepository.save(Transacciones.builder()
                 .numeroCuentaOrigen(dto.getNumeroCuentaOrigen())
                 .numeroCuentaDestino(dto.getNumeroCuentaDestino())
                 .tipoTransaccion(Transacciones.TipoTransaccionEnum.valueOf(dto.getTipoTransaccion()))
                 .monto(dto.getMonto())
                 .descripcion(dto.getDescripcion())
-                .estado(Transacciones.EstadoTransaccionesEnum.PENDIENTE)
+                .claveIdempotencia(dto.getClaveIdempotencia())
+                .estado(estado)
                 .build());
     }
 
-    private void procesarDeposito(TransaccionesSolicitudDTO dto) {
+    private void procesarDeposito(TransaccionesSolicitudDTO dto, boolean conBloqueo) {
         log.debug("Ejecutando depósito para cuenta: {}", dto.getNumeroCuentaOrigen());
 
         // MS2 como EJECUTOR: Solo verifica que la cuenta exista y esté activa
         // NO valida saldos (eso ya lo hizo MS1)
-        CuentaCliente cuenta = obtenerCuentaPorNumero(dto.getNumeroCuentaOrigen());
+        CuentaCliente cuenta = obtenerCuentaPorNumero(dto.getNumeroCuentaOrigen(), conBloqueo);
         validarCuentaActiva(cuenta);
+        long inicio = System.nanoTime();
 
         // Ejecutar la operación: sumar el monto al saldo
-        BigDecimal saldoAnterior = cuenta.getSaldo();
-        BigDecimal nuevoSaldo = saldoAnterior.add(dto.getMonto());
+        Dinero saldoAnterior = cuenta.getSaldo();
+        Dinero nuevoSaldo = saldoAnterior.sumar(dto.getMonto());
         cuenta.setSaldo(nuevoSaldo);
 
         cuentaClienteRepository.save(cuenta);
+        metricas.registrarActualizacionSaldo(Transacciones.TipoTransaccionEnum.DEPOSITO, inicio);
 
         log.info("Depósito ejecutado - Cuenta: {}, Saldo anterior: {}, Monto: {}, Nuevo saldo: {}",
                 cuenta.getNumeroCuenta(), saldoAnterior, dto.getMonto(), nuevoSaldo);
     }
 
-    private void procesarRetiro(TransaccionesSolicitudDTO dto) {
+    // Cuenta caliente: el movimiento queda en el diario y el saldo se actualiza en
+    // segundo plano, sin reescribir la fila de la cuenta en cada depósito
+    private void procesarDepositoDiferido(TransaccionesSolicitudDTO dto, Transacciones transaccion) {
+        log.debug("Ejecutando depósito diferido para cuenta: {}", dto.getNumeroCuentaOrigen());
+
+        CuentaCliente cuenta = obtenerCuentaPorNumero(dto.getNumeroCuentaOrigen(), false);
+        validarCuentaActiva(cuenta);
+
+        transaccion.setSaldoPendiente(true);
+        escrituraDiferida.registrar(cuenta.getNumeroCuenta(), dto.getMonto());
+
+        log.info("Depósito diferido registrado - Cuenta: {}, Monto: {}", cuenta.getNumeroCuenta(), dto.getMonto());
+    }
+
+    private void procesarRetiro(TransaccionesSolicitudDTO dto, boolean conBloqueo) {
         log.debug("Ejecutando retiro para cuenta: {}", dto.getNumeroCuentaOrigen());
 
         // MS2 como EJECUTOR: Solo verifica que la cuenta exista y esté activa
         // MS1 ya validó que hay saldo suficiente, nosotros solo ejecutamos
-        CuentaCliente cuenta = obtenerCuentaPorNumero(dto.getNumeroCuentaOrigen());
+        // Una cuenta caliente siempre se bloquea, también desde los carriles: el relevo de
+        // escritura diferida actualiza la misma fila desde otra transacción
+        CuentaCliente cuenta = obtenerCuentaPorNumero(dto.getNumeroCuentaOrigen(),
+                conBloqueo || esCuentaCaliente(dto.getNumeroCuentaOrigen()));
         validarCuentaActiva(cuenta);
+        incorporarSaldoPendiente(cuenta);
+        long inicio = System.nanoTime();
 
         // Validación mínima de seguridad: verificar que aún hay saldo
         // (por si algo cambió entre MS1 y MS2)
-        if (cuenta.getSaldo().compareTo(dto.getMonto()) < 0) {
+        if (cuenta.getSaldo().esMenorQue(dto.getMonto())) {
             log.warn("ALERTA: Saldo insuficiente al ejecutar retiro. Cuenta: {}, Saldo: {}, Monto: {}",
                     cuenta.getNumeroCuenta(), cuenta.getSaldo(), dto.getMonto());
             throw new SaldoInsuficienteException(
@@ -120,22 +205,103 @@ public class TransaccionesService {
         }
 
         // Ejecutar la operación: restar el monto del saldo
-        BigDecimal saldoAnterior = cuenta.getSaldo();
-        BigDecimal nuevoSaldo = saldoAnterior.subtract(dto.getMonto());
+        Dinero saldoAnterior = cuenta.getSaldo();
+        Dinero nuevoSaldo = saldoAnterior.restar(dto.getMonto());
         cuenta.setSaldo(nuevoSaldo);
 
         cuentaClienteRepository.save(cuenta);
+        metricas.registrarActualizacionSaldo(Transacciones.TipoTransaccionEnum.RETIRO, inicio);
 
         log.info("Retiro ejecutado - Cuenta: {}, Saldo anterior: {}, Monto: {}, Nuevo saldo: {}",
                 cuenta.getNumeroCuenta(), saldoAnterior, dto.getMonto(), nuevoSaldo);
     }
 
-    private CuentaCliente obtenerCuentaPorNumero(String numeroCuenta) {
-        return cuentaClienteRepository.findByNumeroCuentaWithLock(numeroCuenta)
+    // Débito y crédito en la misma transacción de BD. Siempre bloquea las dos filas (también
+    // desde los carriles, que solo serializan la cuenta origen) y en orden de número de
+    // cuenta, así dos transferencias opuestas entre las mismas cuentas nunca se interbloquean
+    private void procesarTransferencia(TransaccionesSolicitudDTO dto) {
+        String numeroOrigen = dto.getNumeroCuentaOrigen();
+        String numeroDestino = dto.getNumeroCuentaDestino();
+        log.debug("Ejecutando transferencia de cuenta {} a cuenta {}", numeroOrigen, numeroDestino);
+
+        if (numeroDestino == null || numeroDestino.isBlank() || numeroDestino.equals(numeroOrigen)) {
+            throw new TransaccionException(
+                    "La transferencia requiere una cuenta destino distinta de la cuenta origen: " + numeroDestino);
+        }
+
+        boolean origenPrimero = numeroOrigen.compareTo(numeroDestino) < 0;
+        CuentaCliente primera = bloquearParaTransferencia(origenPrimero ? numeroOrigen : numeroDestino,
+                origenPrimero, true);
+        CuentaCliente segunda = bloquearParaTransferencia(origenPrimero ? numeroDestino : numeroOrigen,
+                !origenPrimero, false);
+        CuentaCliente origen = origenPrimero ? primera : segunda;
+        CuentaCliente destino = origenPrimero ? segunda : primera;
+        validarCuentaActiva(origen);
+        validarCuentaActiva(destino);
+        incorporarSaldoPendiente(origen);
+        long inicio = System.nanoTime();
+
+        if (origen.getSaldo().esMenorQue(dto.getMonto())) {
+            log.warn("ALERTA: Saldo insuficiente al ejecutar transferencia. Cuenta: {}, Saldo: {}, Monto: {}",
+                    origen.getNumeroCuenta(), origen.getSaldo(), dto.getMonto());
+            throw new SaldoInsuficienteException(
+                    String.format("Saldo insuficiente al ejecutar transferencia. Saldo: %s, Monto: %s",
+                            origen.getSaldo(), dto.getMonto()));
+        }
+
+        Dinero saldoOrigenAnterior = origen.getSaldo();
+        Dinero saldoDestinoAnterior = destino.getSaldo();
+        origen.setSaldo(saldoOrigenAnterior.restar(dto.getMonto()));
+        destino.setSaldo(saldoDestinoAnterior.sumar(dto.getMonto()));
+
+        cuentaClienteRepository.save(origen);
+        cuentaClienteRepository.save(destino);
+        metricas.registrarActualizacionSaldo(Transacciones.TipoTransaccionEnum.TRANSFERENCIA, inicio);
+
+        log.info("Transferencia ejecutada - Origen: {} ({} -> {}), Destino: {} ({} -> {}), Monto: {}",
+                origen.getNumeroCuenta(), saldoOrigenAnterior, origen.getSaldo(), destino.getNumeroCuenta(),
+                saldoDestinoAnterior, destino.getSaldo(), dto.getMonto());
+    }
+
+    private CuentaCliente bloquearParaTransferencia(String numeroCuenta, boolean esOrigen, boolean primera) {
+        return registrarMetadatos(numeroCuenta, metricas.medirEsperaBloqueoTransferencia(esOrigen, primera,
+                () -> cuentaClienteRepository.findByNumeroCuentaWithLock(numeroCuenta)))
+                .orElseThrow(() -> new CuentaNoEncontradaException(
+                        "Cuenta no encontrada con número: " + numeroCuenta));
+    }
+
+    private CuentaCliente obtenerCuentaPorNumero(String numeroCuenta, boolean conBloqueo) {
+        return registrarMetadatos(numeroCuenta, conBloqueo
+                ? metricas.medirEsperaBloqueo(() -> cuentaClienteRepository.findByNumeroCuentaWithLock(numeroCuenta))
+                : cuentaClienteRepository.findByNumeroCuenta(numeroCuenta))
                 .orElseThrow(() -> new CuentaNoEncontradaException(
                         "Cuenta no encontrada con número: " + numeroCuenta));
     }
 
+    // La fila recién leída es la fuente más fresca del estado de la cuenta
+    private Optional<CuentaCliente> registrarMetadatos(String numeroCuenta, Optional<CuentaCliente> cuenta) {
+        if (metadatosCuentas != null) {
+            metadatosCuentas.actualizar(numeroCuenta, cuenta);
+        }
+        return cuenta;
+    }
+
+    // Cuenta caliente: los depósitos diferidos aún no aplicados cuentan para validar fondos. Se
+    // suman a la fila ya bloqueada en esta misma transacción, sin abrir otra (y sin pedir una
+    // segunda conexión mientras se retiene la primera)
+    private void incorporarSaldoPendiente(CuentaCliente cuenta) {
+        if (esCuentaCaliente(cuenta.getNumeroCuenta())) {
+            Dinero pendiente = escrituraDiferida.reclamarPendientes(cuenta.getNumeroCuenta());
+            if (!pendiente.equals(Dinero.CERO)) {
+                cuenta.setSaldo(cuenta.getSaldo().sumar(pendiente));
+            }
+        }
+    }
+
+    private boolean esCuentaCaliente(String numeroCuenta) {
+        return escrituraDiferida != null && escrituraDiferida.esCuentaCaliente(numeroCuenta);
+    }
+
     private void validarCuentaActiva(CuentaCliente cuenta) {
         if (!cuenta.isActiva()) {
             throw new TransaccionException(
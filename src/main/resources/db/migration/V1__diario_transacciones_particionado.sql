@@ -0,0 +1,119 @@
+-- Diario de transacciones particionado por mes sobre fecha_transaccion (PostgreSQL 14+, por el
+-- DETACH PARTITION ... CONCURRENTLY de MantenimientoParticiones).
+-- Si ya existe la tabla creada por ddl-auto, se conserva como partición transacciones_legado
+-- con todo el historial hasta el fin del mes en curso. Las particiones mensuales siguientes
+-- las mantiene MantenimientoParticiones.
+--
+-- Una restricción única en una tabla particionada debe incluir la clave de partición, así
+-- que la unicidad global de clave_idempotencia se mueve a transacciones_claves_idempotencia,
+-- que se llena por trigger en la misma sentencia del INSERT. Su PK conserva el nombre
+-- uk_transacciones_clave_idempotencia que reconoce IdempotenciaTransacciones
+
+CREATE SEQUENCE IF NOT EXISTS account.transacciones_id_seq;
+
+DO $$
+DECLARE
+    -- Los meses de partición se cortan en UTC, igual que MantenimientoParticiones
+    mes_actual timestamptz := date_trunc('month', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+    inicio_particiones timestamptz := mes_actual;
+    mes timestamptz;
+BEGIN
+    IF to_regclass('account.transacciones') IS NOT NULL THEN
+        -- Tabla existente: liberar sus nombres y dejarla lista para adjuntarse como partición
+        ALTER TABLE account.transacciones RENAME TO transacciones_legado;
+        ALTER TABLE account.transacciones_legado ALTER COLUMN id_transaccion DROP IDENTITY IF EXISTS;
+        ALTER TABLE account.transacciones_legado ALTER COLUMN id_transaccion DROP DEFAULT;
+        -- La PK de cada partición debe incluir la clave de partición. Construir el índice bloquea
+        -- la tabla mientras recorre todas sus filas; si se creó antes con CREATE UNIQUE INDEX
+        -- CONCURRENTLY (ver README), solo se promueve a PK
+        ALTER TABLE account.transacciones_legado DROP CONSTRAINT IF EXISTS transacciones_pkey;
+        IF to_regclass('account.transacciones_legado_pkey') IS NOT NULL THEN
+            ALTER TABLE account.transacciones_legado
+                ADD CONSTRAINT transacciones_legado_pkey PRIMARY KEY USING INDEX transacciones_legado_pkey;
+        ELSE
+            ALTER TABLE account.transacciones_legado
+                ADD CONSTRAINT transacciones_legado_pkey PRIMARY KEY (id_transaccion, fecha_transaccion);
+        END IF;
+        -- Con un CHECK validado que implica el límite de la partición, ATTACH no vuelve a recorrer
+        -- la tabla. VALIDATE no hace nada si el CHECK ya se creó y validó antes (ver README)
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                        WHERE conrelid = 'account.transacciones_legado'::regclass
+                          AND conname = 'transacciones_legado_limite') THEN
+            EXECUTE format('ALTER TABLE account.transacciones_legado ADD CONSTRAINT transacciones_legado_limite '
+                    || 'CHECK (fecha_transaccion < %L) NOT VALID', mes_actual + interval '1 month');
+        END IF;
+        ALTER TABLE account.transacciones_legado VALIDATE CONSTRAINT transacciones_legado_limite;
+        -- La unicidad pasa a transacciones_claves_idempotencia, que se llena con estas mismas claves
+        ALTER TABLE account.transacciones_legado DROP CONSTRAINT IF EXISTS uk_transacciones_clave_idempotencia;
+        ALTER INDEX IF EXISTS account.idx_transacciones_cuenta_fecha RENAME TO idx_transacciones_legado_cuenta_fecha;
+    END IF;
+
+    CREATE TABLE account.transacciones_claves_idempotencia (
+        clave_idempotencia varchar(100) NOT NULL,
+        id_transaccion bigint NOT NULL,
+        fecha_transaccion timestamp(6) with time zone NOT NULL,
+        CONSTRAINT uk_transacciones_clave_idempotencia PRIMARY KEY (clave_idempotencia)
+    );
+
+    IF to_regclass('account.transacciones_legado') IS NOT NULL THEN
+        PERFORM setval('account.transacciones_id_seq',
+                COALESCE((SELECT max(id_transaccion) FROM account.transacciones_legado), 0) + 1, false);
+        INSERT INTO account.transacciones_claves_idempotencia
+            SELECT clave_idempotencia, id_transaccion, fecha_transaccion
+              FROM account.transacciones_legado
+             WHERE clave_idempotencia IS NOT NULL;
+
+        -- Mismas columnas y tipos que la tabla existente, requisito para adjuntarla
+        CREATE TABLE account.transacciones (LIKE account.transacciones_legado INCLUDING DEFAULTS)
+            PARTITION BY RANGE (fecha_transaccion);
+        inicio_particiones := mes_actual + interval '1 month';
+    ELSE
+        CREATE TABLE account.transacciones (
+            id_transaccion bigint NOT NULL,
+            clave_idempotencia varchar(100),
+            descripcion varchar(150),
+            estado varchar(15) NOT NULL,
+            fecha_transaccion timestamp(6) with time zone NOT NULL,
+            monto numeric(15, 2) NOT NULL,
+            numero_cuenta_destino varchar(10),
+            numero_cuenta_origen varchar(10) NOT NULL,
+            saldo_pendiente boolean,
+            tipo_transaccion varchar(20) NOT NULL,
+            version bigint NOT NULL
+        ) PARTITION BY RANGE (fecha_transaccion);
+    END IF;
+
+    ALTER TABLE account.transacciones ALTER COLUMN id_transaccion SET DEFAULT nextval('account.transacciones_id_seq');
+    ALTER SEQUENCE account.transacciones_id_seq OWNED BY account.transacciones.id_transaccion;
+    ALTER TABLE account.transacciones ADD CONSTRAINT transacciones_pkey PRIMARY KEY (id_transaccion, fecha_transaccion);
+    CREATE INDEX idx_transacciones_cuenta_fecha ON account.transacciones (numero_cuenta_origen, fecha_transaccion);
+
+    IF to_regclass('account.transacciones_legado') IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE account.transacciones ATTACH PARTITION account.transacciones_legado '
+                || 'FOR VALUES FROM (MINVALUE) TO (%L)', inicio_particiones);
+        -- Redundante con la restricción de partición
+        ALTER TABLE account.transacciones_legado DROP CONSTRAINT transacciones_legado_limite;
+    END IF;
+
+    -- Mes en curso (si no lo cubre la partición legado) y el siguiente
+    mes := inicio_particiones;
+    WHILE mes < mes_actual + interval '2 month' LOOP
+        EXECUTE format('CREATE TABLE account.%I PARTITION OF account.transacciones FOR VALUES FROM (%L) TO (%L)',
+                'transacciones_p' || to_char(mes AT TIME ZONE 'UTC', 'YYYYMM'), mes, mes + interval '1 month');
+        mes := mes + interval '1 month';
+    END LOOP;
+END $$;
+
+CREATE FUNCTION account.registrar_clave_idempotencia() RETURNS trigger AS $$
+BEGIN
+    IF NEW.clave_idempotencia IS NOT NULL THEN
+        INSERT INTO account.transacciones_claves_idempotencia (clave_idempotencia, id_transaccion, fecha_transaccion)
+        VALUES (NEW.clave_idempotencia, NEW.id_transaccion, NEW.fecha_transaccion);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transacciones_clave_idempotencia
+    AFTER INSERT ON account.transacciones
+    FOR EACH ROW EXECUTE FUNCTION account.registrar_clave_idempotencia();
@@ -0,0 +1,20 @@
+-- TRANSFERENCIA como tipo de transacción. ddl-auto (Hibernate 6) crea tipo_transaccion con un
+-- CHECK de los valores del enum y la partición transacciones_legado lo conserva; el diario
+-- creado por V1 no lo tiene, así que se elimina donde quede en lugar de ampliarlo
+DO $$
+DECLARE
+    restriccion record;
+BEGIN
+    FOR restriccion IN
+        SELECT c.conrelid::regclass AS tabla, c.conname AS nombre
+          FROM pg_constraint c
+          JOIN pg_class t ON t.oid = c.conrelid
+          JOIN pg_namespace n ON n.oid = t.relnamespace
+         WHERE n.nspname = 'account'
+           AND t.relname LIKE 'transacciones%'
+           AND c.contype = 'c'
+           AND pg_get_constraintdef(c.oid) LIKE '%tipo_transaccion%'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', restriccion.tabla, restriccion.nombre);
+    END LOOP;
+END $$;
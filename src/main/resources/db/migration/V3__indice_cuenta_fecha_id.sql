@@ -0,0 +1,8 @@
+-- id_transaccion al final de idx_transacciones_cuenta_fecha: la paginación por clave del estado
+-- de cuenta (fecha_transaccion, id_transaccion) se resuelve entera en el índice, también cuando
+-- varias filas comparten fecha. Sobre la tabla particionada no se admite CONCURRENTLY: el
+-- DROP baja los índices de todas las particiones (incluida transacciones_legado) y el CREATE
+-- los reconstruye bloqueando escrituras mientras dura
+DROP INDEX IF EXISTS account.idx_transacciones_cuenta_fecha;
+CREATE INDEX idx_transacciones_cuenta_fecha
+    ON account.transacciones (numero_cuenta_origen, fecha_transaccion, id_transaccion);
@@ -0,0 +1,5 @@
+-- Transferencias recibidas en el estado de cuenta: mismo recorrido por clave (fecha_transaccion,
+-- id_transaccion) que idx_transacciones_cuenta_fecha, sobre la cuenta destino. Igual que V3, en
+-- la tabla particionada no se admite CONCURRENTLY y el CREATE bloquea escrituras mientras dura
+CREATE INDEX IF NOT EXISTS idx_transacciones_destino_fecha
+    ON account.transacciones (numero_cuenta_destino, fecha_transaccion, id_transaccion);
@@ -0,0 +1,6 @@
+-- Movimientos de escritura diferida aún no aplicados: el índice parcial solo contiene esas
+-- filas, así que el ciclo de escritura diferida, los retiros de cuentas calientes y la
+-- recuperación del arranque no recorren el historial de la cuenta ni el diario completo.
+-- Igual que V3, en la tabla particionada no se admite CONCURRENTLY
+CREATE INDEX IF NOT EXISTS idx_transacciones_saldo_pendiente
+    ON account.transacciones (numero_cuenta_origen) WHERE saldo_pendiente;
@@ -0,0 +1,72 @@
+package com.banquito.core.bank.transaction;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Un único PostgreSQL embebido por JVM para las pruebas que necesitan SQL propio de PostgreSQL.
+// Cada contexto de Spring recibe su propia base de datos, así que los contextos en caché no
+// comparten tablas. Uso desde la clase de prueba:
+//   @DynamicPropertySource static void baseDatos(DynamicPropertyRegistry registro) { PostgresEmbebido.registrar(registro); }
+public final class PostgresEmbebido {
+
+    private static final AtomicInteger SIGUIENTE_BASE = new AtomicInteger();
+    private static EmbeddedPostgres postgres;
+
+    private PostgresEmbebido() {
+    }
+
+    // Crea la base con el esquema account y ejecuta las sentencias dadas antes de que arranque
+    // el contexto (p. ej. para partir de una tabla heredada)
+    public static void registrar(DynamicPropertyRegistry registro, String... sentenciasIniciales) {
+        String nombre = "pruebas_" + SIGUIENTE_BASE.incrementAndGet();
+        EmbeddedPostgres servidor = servidor();
+        try {
+            try (Connection conexion = servidor.getPostgresDatabase().getConnection();
+                    Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("CREATE DATABASE " + nombre);
+            }
+            try (Connection conexion = servidor.getDatabase("postgres", nombre).getConnection();
+                    Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("CREATE SCHEMA IF NOT EXISTS account");
+                for (String sql : sentenciasIniciales) {
+                    sentencia.execute(sql);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo preparar la base " + nombre, e);
+        }
+        String url = servidor.getJdbcUrl("postgres", nombre);
+        registro.add("spring.datasource.url", () -> url);
+        registro.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registro.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registro.add("spring.datasource.username", () -> "postgres");
+        registro.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres servidor() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo iniciar PostgreSQL embebido", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(PostgresEmbebido::detener, "postgres-embebido"));
+        }
+        return postgres;
+    }
+
+    private static void detener() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
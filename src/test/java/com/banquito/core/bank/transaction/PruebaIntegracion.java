@@ -0,0 +1,87 @@
+package com.banquito.core.bank.transaction;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Base de las pruebas de servicio: la aplicación completa contra H2 en memoria y un broker
+// ActiveMQ embebido. Cada combinación de propiedades tiene su propio contexto (y su propia base
+// y broker); las clases con la misma configuración lo comparten, por eso cada prueba crea sus
+// propias cuentas en lugar de sembrar números fijos
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pruebas-${random.uuid};MODE=PostgreSQL;LOCK_TIMEOUT=10000;"
+                + "DB_CLOSE_ON_EXIT=FALSE;INIT=CREATE SCHEMA IF NOT EXISTS account",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.show-sql=false",
+        "spring.activemq.broker-url=vm://pruebas-${random.uuid}?broker.persistent=false&broker.useJmx=false",
+        "logging.level.com.banquito=WARN",
+        "logging.level.org.springframework.jms=WARN",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+public abstract class PruebaIntegracion {
+
+    private static final AtomicLong SIGUIENTE_CUENTA = new AtomicLong(1);
+
+    @Autowired
+    protected CuentaClienteRepository cuentaClienteRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    // Cuenta ACTIVO con un número que ninguna otra prueba usa
+    protected String crearCuenta(Dinero saldo) {
+        return crearCuenta(String.format("%010d", SIGUIENTE_CUENTA.getAndIncrement()), saldo);
+    }
+
+    protected String crearCuenta(String numeroCuenta, Dinero saldo) {
+        cuentaClienteRepository.save(CuentaCliente.builder()
+                .idCliente("prueba-" + numeroCuenta)
+                .numeroCuenta(numeroCuenta)
+                .saldoDisponible(saldo)
+                .saldoContable(saldo)
+                .fechaApertura(Instant.now())
+                .build());
+        return numeroCuenta;
+    }
+
+    protected void cambiarEstado(String numeroCuenta, CuentaCliente.EstadoCuentaClienteEnum estado) {
+        jdbcTemplate.update("UPDATE account.cuentas_clientes SET estado = ? WHERE numero_cuenta = ?",
+                estado.name(), numeroCuenta);
+    }
+
+    protected Dinero saldo(String numeroCuenta) {
+        return cuentaClienteRepository.findByNumeroCuenta(numeroCuenta).orElseThrow().getSaldo();
+    }
+
+    // Estado con el que quedó registrada en el diario la transacción de esa solicitud
+    protected String estadoRegistrado(TransaccionesSolicitudDTO solicitud) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM account.transacciones WHERE clave_idempotencia = ?",
+                String.class, solicitud.getClaveIdempotencia());
+    }
+
+    protected static TransaccionesSolicitudDTO solicitud(String tipo, String cuenta, String monto) {
+        return solicitud(tipo, cuenta, null, monto);
+    }
+
+    protected static TransaccionesSolicitudDTO solicitud(String tipo, String origen, String destino, String monto) {
+        return TransaccionesSolicitudDTO.builder()
+                .tipoTransaccion(tipo)
+                .numeroCuentaOrigen(origen)
+                .numeroCuentaDestino(destino)
+                .monto(Dinero.parse(monto))
+                .claveIdempotencia(UUID.randomUUID().toString())
+                .build();
+    }
+}
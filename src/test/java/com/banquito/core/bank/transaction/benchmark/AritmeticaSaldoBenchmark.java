@@ -0,0 +1,101 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Aritmética de saldos tal como la hacen depósitos, retiros y la escritura diferida (suma
+// de deltas con signo): la ruta BigDecimal anterior frente a Dinero (centavos en un long).
+// Con -prof gc se ve además la asignación por operación de cada ruta
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AritmeticaSaldoBenchmark {
+
+    private BigDecimal saldo = new BigDecimal("15234.75");
+    private BigDecimal monto = new BigDecimal("150.50");
+    private final BigDecimal[] deltas = new BigDecimal[100];
+
+    private Dinero saldoDinero = Dinero.parse("15234.75");
+    private Dinero montoDinero = Dinero.parse("150.50");
+    private final Dinero[] deltasDinero = new Dinero[deltas.length];
+
+    // Texto del monto tal como llega en el mensaje JMS
+    private String textoMonto = "150.50";
+
+    {
+        for (int i = 0; i < deltas.length; i++) {
+            BigDecimal delta = new BigDecimal(String.format("%d.%02d", i + 1, i % 100));
+            deltas[i] = i % 3 == 0 ? delta.negate() : delta;
+            deltasDinero[i] = Dinero.de(deltas[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal deposito() {
+        return saldo.add(monto);
+    }
+
+    @Benchmark
+    public BigDecimal retiroConValidacion() {
+        if (saldo.compareTo(monto) < 0) {
+            return saldo;
+        }
+        return saldo.subtract(monto);
+    }
+
+    @Benchmark
+    public BigDecimal acumularDeltas() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal delta : deltas) {
+            total = total.add(delta);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Dinero depositoDinero() {
+        return saldoDinero.sumar(montoDinero);
+    }
+
+    @Benchmark
+    public Dinero retiroConValidacionDinero() {
+        if (saldoDinero.esMenorQue(montoDinero)) {
+            return saldoDinero;
+        }
+        return saldoDinero.restar(montoDinero);
+    }
+
+    // Igual que SaldosPendientesService: el total se lleva en centavos
+    @Benchmark
+    public long acumularDeltasDinero() {
+        long total = 0;
+        for (Dinero delta : deltasDinero) {
+            total = Math.addExact(total, delta.centavos());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal parsearMonto() {
+        return new BigDecimal(textoMonto);
+    }
+
+    @Benchmark
+    public Dinero parsearMontoDinero() {
+        return Dinero.parse(textoMonto);
+    }
+}
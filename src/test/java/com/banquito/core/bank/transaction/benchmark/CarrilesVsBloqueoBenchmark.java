@@ -0,0 +1,92 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.executor.CarrilesCuentaExecutor;
+import com.banquito.core.bank.transaction.service.TransaccionesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compara el throughput de depósitos con el bloqueo PESSIMISTIC_WRITE actual contra
+// los carriles por cuenta cuando el tráfico se concentra en pocas cuentas calientes
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(16)
+public class CarrilesVsBloqueoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Contexto {
+
+        @Param({ "1000" })
+        int cuentas;
+
+        // 0 = uniforme; valores mayores concentran el tráfico en menos cuentas
+        @Param({ "0.0", "1.2" })
+        double sesgo;
+
+        ConfigurableApplicationContext contexto;
+        TransaccionesService transaccionesService;
+        CarrilesCuentaExecutor carriles;
+        DistribucionZipf distribucion;
+
+        @Setup(Level.Trial)
+        public void iniciar() {
+            contexto = ContextoBenchmark.iniciar("transacciones.carriles.habilitado=true");
+            ContextoBenchmark.sembrarCuentas(contexto, cuentas, Dinero.parse("1000.00"));
+            transaccionesService = contexto.getBean(TransaccionesService.class);
+            carriles = contexto.getBean(CarrilesCuentaExecutor.class);
+            distribucion = new DistribucionZipf(cuentas, sesgo);
+        }
+
+        @TearDown(Level.Trial)
+        public void detener() {
+            contexto.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Generador {
+
+        final SplittableRandom random = new SplittableRandom();
+
+        TransaccionesSolicitudDTO deposito(Contexto contexto) {
+            return TransaccionesSolicitudDTO.builder()
+                    .numeroCuentaOrigen(ContextoBenchmark.numeroCuenta(contexto.distribucion.siguiente(random)))
+                    .tipoTransaccion("DEPOSITO")
+                    .monto(Dinero.parse("1.00"))
+                    .descripcion("benchmark")
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public Object bloqueoFila(Contexto contexto, Generador generador) {
+        return contexto.transaccionesService.procesar(generador.deposito(contexto));
+    }
+
+    @Benchmark
+    public Object carrilesPorCuenta(Contexto contexto, Generador generador) {
+        TransaccionesSolicitudDTO dto = generador.deposito(contexto);
+        return contexto.carriles.ejecutar(dto.getNumeroCuentaOrigen(),
+                () -> contexto.transaccionesService.procesarSinBloqueo(dto));
+    }
+}
@@ -0,0 +1,91 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compara un resultado JMH en JSON contra una línea base y falla si algún benchmark
+// empeora más que la tolerancia (en %). En modo throughput más es mejor; en los
+// modos de tiempo (avgt, sample, ss) menos es mejor
+public final class ComparadorResultadosJmh {
+
+    private ComparadorResultadosJmh() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Sin línea base no hay comparación posible: se falla en lugar de dar el build por bueno
+        if (args.length < 2 || args[0] == null || args[0].isBlank()) {
+            throw new IllegalArgumentException("Falta la línea base: ./mvnw -Pbenchmark exec:java@comparar "
+                    + "-Djmh.linea-base=ruta/resultado-anterior.json (un jmh-resultado.json de la versión anterior "
+                    + "medido en la misma máquina)");
+        }
+        Path lineaBase = Path.of(args[0]);
+        Path resultado = Path.of(args[1]);
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        if (!Files.exists(lineaBase)) {
+            throw new IllegalArgumentException("No existe la línea base " + lineaBase
+                    + "; indique otra con -Djmh.linea-base o copie ahí un jmh-resultado.json de la versión anterior");
+        }
+        if (!Files.exists(resultado)) {
+            throw new IllegalArgumentException("No existe el resultado " + resultado
+                    + "; ejecute antes ./mvnw -Pbenchmark test-compile exec:exec@jmh");
+        }
+
+        Map<String, JsonNode> base = leer(lineaBase);
+        Map<String, JsonNode> actual = leer(resultado);
+        List<String> regresiones = new ArrayList<>();
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Base", "Actual", "Cambio");
+        for (Map.Entry<String, JsonNode> entrada : actual.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entrada.getKey(), "-", puntaje(entrada.getValue()), "nuevo");
+                continue;
+            }
+            double valorBase = puntaje(anterior);
+            double valorActual = puntaje(entrada.getValue());
+            double cambio = (valorActual - valorBase) / valorBase * 100.0;
+            // Empeoramiento expresado siempre como porcentaje positivo
+            double empeoramiento = "thrpt".equals(entrada.getValue().path("mode").asText()) ? -cambio : cambio;
+
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%n", entrada.getKey(), valorBase, valorActual, cambio,
+                    entrada.getValue().path("primaryMetric").path("scoreUnit").asText());
+            if (empeoramiento > tolerancia) {
+                regresiones.add(String.format("%s empeoró %.1f%%", entrada.getKey(), empeoramiento));
+            }
+        }
+
+        if (!regresiones.isEmpty()) {
+            throw new IllegalStateException("Regresiones de rendimiento sobre " + tolerancia + "%: " + regresiones);
+        }
+        System.out.printf("Sin regresiones sobre %.1f%%%n", tolerancia);
+    }
+
+    // Clave: nombre del benchmark, modo y parámetros, para comparar solo ejecuciones equivalentes
+    private static Map<String, JsonNode> leer(Path archivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode nodo : new ObjectMapper().readTree(archivo.toFile())) {
+            Map<String, String> parametros = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> campo : nodo.path("params").properties()) {
+                parametros.put(campo.getKey(), campo.getValue().asText());
+            }
+            String clave = nodo.path("benchmark").asText() + " [" + nodo.path("mode").asText() + "]"
+                    + (parametros.isEmpty() ? "" : " " + parametros);
+            resultados.put(clave, nodo);
+        }
+        return resultados;
+    }
+
+    private static double puntaje(JsonNode nodo) {
+        return nodo.path("primaryMetric").path("score").asDouble();
+    }
+}
@@ -0,0 +1,133 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQPrefetchPolicy;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+import org.apache.activemq.broker.region.Destination;
+import org.apache.activemq.broker.region.Queue;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.MessageListener;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Mensajes por segundo contra un broker embebido por TCP (cada conexión nueva paga el
+// handshake de red, como con el broker real), antes y después de la caché de conexiones:
+// - envio: JmsTemplate sobre la fábrica física (conexión + sesión + productor por mensaje)
+//   contra JmsTemplate sobre CachingConnectionFactory
+// - consumo: contenedor de listener con CACHE_NONE y prefetch por defecto contra
+//   CACHE_CONSUMER y el prefetch de transacciones.jms.prefetch-cola
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConexionesJmsBenchmark {
+
+    private static final int LOTE = 200;
+    private static final String COLA_ENVIO = "benchmark.envio";
+    private static final String COLA_CONSUMO = "benchmark.consumo";
+    private static final String MENSAJE = """
+            {"numeroCuentaOrigen":"1234567890","tipoTransaccion":"DEPOSITO","monto":150.50}""";
+
+    @Param({ "false", "true" })
+    public boolean cache;
+
+    private BrokerService broker;
+    private CachingConnectionFactory fabricaCacheada;
+    private JmsTemplate plantillaEnvio;
+    private JmsTemplate plantillaConsumo;
+    private DefaultMessageListenerContainer contenedor;
+    private final Semaphore recibidos = new Semaphore(0);
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        broker = new BrokerService();
+        broker.setBrokerName("benchmark-conexiones");
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        TransportConnector conector = broker.addConnector("tcp://127.0.0.1:0");
+        broker.start();
+        broker.waitUntilStarted();
+        String url = conector.getPublishableConnectString();
+
+        ActiveMQConnectionFactory fisica = new ActiveMQConnectionFactory(url);
+        if (cache) {
+            ActiveMQPrefetchPolicy prefetch = new ActiveMQPrefetchPolicy();
+            prefetch.setQueuePrefetch(50);
+            fisica.setPrefetchPolicy(prefetch);
+        }
+        fabricaCacheada = new CachingConnectionFactory(fisica);
+        fabricaCacheada.setSessionCacheSize(10);
+        fabricaCacheada.setCacheConsumers(false);
+
+        ConnectionFactory fabricaEnvio = cache ? fabricaCacheada : fisica;
+        plantillaEnvio = new JmsTemplate(fabricaEnvio);
+        // El consumo se alimenta siempre por la fábrica cacheada para medir solo el listener
+        plantillaConsumo = new JmsTemplate(fabricaCacheada);
+
+        contenedor = new DefaultMessageListenerContainer();
+        contenedor.setConnectionFactory(fisica);
+        contenedor.setDestinationName(COLA_CONSUMO);
+        contenedor.setConcurrentConsumers(2);
+        contenedor.setCacheLevel(cache ? DefaultMessageListenerContainer.CACHE_CONSUMER
+                : DefaultMessageListenerContainer.CACHE_NONE);
+        contenedor.setMessageListener((MessageListener) mensaje -> recibidos.release());
+        contenedor.afterPropertiesSet();
+        contenedor.start();
+    }
+
+    // La cola de envío no tiene consumidor: se vacía entre iteraciones para que el límite de
+    // memoria del broker no active el control de flujo sobre los productores
+    @TearDown(Level.Iteration)
+    public void vaciarColaEnvio() throws Exception {
+        Destination cola = broker.getRegionBroker().getDestinationMap().get(new ActiveMQQueue(COLA_ENVIO));
+        if (cola instanceof Queue queue) {
+            queue.purge();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws Exception {
+        contenedor.shutdown();
+        fabricaCacheada.destroy();
+        broker.stop();
+        broker.waitUntilStopped();
+    }
+
+    @Benchmark
+    public void envio() {
+        plantillaEnvio.send(COLA_ENVIO, session -> session.createTextMessage(MENSAJE));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void consumo() throws InterruptedException {
+        for (int i = 0; i < LOTE; i++) {
+            plantillaConsumo.send(COLA_CONSUMO, session -> session.createTextMessage(MENSAJE));
+        }
+        if (!recibidos.tryAcquire(LOTE, 30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("El listener no consumió el lote a tiempo");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.controller.TransaccionesController;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionRespuestaDTO;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.TransaccionesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Costo de consultarEstado: solo el mapeo entidad -> DTO y la llamada completa al
+// controlador (findById + mapeo) contra H2
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaEstadoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Entidades {
+
+        final Transacciones completada = transaccion(Transacciones.EstadoTransaccionesEnum.COMPLETADA);
+        final Transacciones error = transaccion(Transacciones.EstadoTransaccionesEnum.ERROR);
+
+        private static Transacciones transaccion(Transacciones.EstadoTransaccionesEnum estado) {
+            return Transacciones.builder()
+                    .id(12345L)
+                    .numeroCuentaOrigen("1234567890")
+                    .tipoTransaccion(Transacciones.TipoTransaccionEnum.DEPOSITO)
+                    .monto(Dinero.parse("150.50"))
+                    .descripcion("Depósito por transferencia externa")
+                    .fechaTransaccion(Instant.now())
+                    .estado(estado)
+                    .version(0L)
+                    .build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Aplicacion {
+
+        static final int TRANSACCIONES = 1000;
+
+        ConfigurableApplicationContext contexto;
+        TransaccionesController controller;
+        long primerId;
+        final SplittableRandom random = new SplittableRandom(42);
+
+        @Setup(Level.Trial)
+        public void iniciar() {
+            contexto = ContextoBenchmark.iniciar();
+            ContextoBenchmark.sembrarCuentas(contexto, 1, Dinero.parse("1000000.00"));
+            TransaccionesService transaccionesService = contexto.getBean(TransaccionesService.class);
+            primerId = Long.MAX_VALUE;
+            for (int i = 0; i < TRANSACCIONES; i++) {
+                Transacciones transaccion = transaccionesService.procesar(TransaccionesSolicitudDTO.builder()
+                        .numeroCuentaOrigen(ContextoBenchmark.numeroCuenta(0))
+                        .tipoTransaccion("DEPOSITO")
+                        .monto(Dinero.parse("1.00"))
+                        .build());
+                primerId = Math.min(primerId, transaccion.getId());
+            }
+            controller = contexto.getBean(TransaccionesController.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void detener() {
+            contexto.close();
+        }
+    }
+
+    @Benchmark
+    public TransaccionRespuestaDTO mapeoCompletada(Entidades entidades) {
+        return TransaccionRespuestaDTO.desde(entidades.completada);
+    }
+
+    @Benchmark
+    public TransaccionRespuestaDTO mapeoError(Entidades entidades) {
+        return TransaccionRespuestaDTO.desde(entidades.error);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> consultarEstado(Aplicacion aplicacion) {
+        return aplicacion.controller.consultarEstado(
+                aplicacion.primerId + aplicacion.random.nextInt(Aplicacion.TRANSACCIONES));
+    }
+}
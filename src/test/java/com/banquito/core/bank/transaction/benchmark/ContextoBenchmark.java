@@ -0,0 +1,133 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.TransactionApplication;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Levanta la aplicación contra H2 en memoria (o un PostgreSQL embebido) y un broker
+// ActiveMQ embebido para que los benchmarks midan el código real sin depender de AWS
+public final class ContextoBenchmark {
+
+    public enum BaseDatos {
+        H2,
+        POSTGRES
+    }
+
+    private ContextoBenchmark() {
+    }
+
+    public static ConfigurableApplicationContext iniciar(String... propiedadesAdicionales) {
+        return iniciar(BaseDatos.H2, propiedadesAdicionales);
+    }
+
+    public static ConfigurableApplicationContext iniciar(BaseDatos baseDatos, String... propiedadesAdicionales) {
+        return iniciar(baseDatos, contexto -> {
+        }, propiedadesAdicionales);
+    }
+
+    // El inicializador permite instrumentar beans (p. ej. registrar un BeanPostProcessor) antes del refresh
+    public static ConfigurableApplicationContext iniciar(BaseDatos baseDatos,
+            ApplicationContextInitializer<ConfigurableApplicationContext> inicializador,
+            String... propiedadesAdicionales) {
+        EmbeddedPostgres postgres = baseDatos == BaseDatos.POSTGRES ? iniciarPostgres() : null;
+
+        List<String> propiedades = new ArrayList<>();
+        if (postgres == null) {
+            propiedades.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;LOCK_TIMEOUT=10000;DB_CLOSE_ON_EXIT=FALSE;"
+                            + "INIT=CREATE SCHEMA IF NOT EXISTS account",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        } else {
+            propiedades.addAll(List.of(
+                    "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                    "spring.datasource.username=postgres",
+                    "spring.datasource.password=postgres"));
+        }
+        propiedades.addAll(List.of(
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.show-sql=false",
+                "spring.activemq.broker-url=vm://benchmark?broker.persistent=false&broker.useJmx=false",
+                "server.port=0",
+                "logging.level.com.banquito=WARN",
+                "logging.level.org.springframework.jms=WARN",
+                "logging.level.org.hibernate.SQL=WARN"));
+        propiedades.addAll(List.of(propiedadesAdicionales));
+
+        // Como argumentos de línea de comandos para que prevalezcan sobre application.properties
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(TransactionApplication.class)
+                .initializers(inicializador)
+                .run(propiedades.stream().map(p -> "--" + p).toArray(String[]::new));
+        if (postgres != null) {
+            contexto.addApplicationListener(evento -> {
+                if (evento instanceof ContextClosedEvent) {
+                    cerrar(postgres);
+                }
+            });
+        }
+        return contexto;
+    }
+
+    // Crea las cuentas 0000000000..N-1 con el saldo indicado
+    public static List<String> sembrarCuentas(ConfigurableApplicationContext contexto, int cantidad,
+            Dinero saldoInicial) {
+        CuentaClienteRepository repository = contexto.getBean(CuentaClienteRepository.class);
+        List<CuentaCliente> cuentas = new ArrayList<>(cantidad);
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String numero = numeroCuenta(i);
+            numeros.add(numero);
+            cuentas.add(CuentaCliente.builder()
+                    .idCliente("benchmark-" + i)
+                    .numeroCuenta(numero)
+                    .saldoDisponible(saldoInicial)
+                    .saldoContable(saldoInicial)
+                    .fechaApertura(Instant.now())
+                    .build());
+        }
+        repository.saveAll(cuentas);
+        return numeros;
+    }
+
+    public static String numeroCuenta(int indice) {
+        return String.format("%010d", indice);
+    }
+
+    private static EmbeddedPostgres iniciarPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+                connection.createStatement().execute("CREATE SCHEMA IF NOT EXISTS account");
+            }
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo iniciar PostgreSQL embebido", e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo crear el esquema account", e);
+        }
+    }
+
+    private static void cerrar(EmbeddedPostgres postgres) {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.consumer.DecodificadorSolicitudJson;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Compara el ObjectMapper creado por mensaje (comportamiento original del consumidor)
+// contra el ObjectReader compartido y el decodificador por streaming
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecodificacionMensajeBenchmark {
+
+    private static final String MENSAJE = """
+            {"numeroCuentaOrigen":"1234567890","numeroCuentaDestino":"0987654321","tipoTransaccion":"DEPOSITO",
+             "monto":150.50,"descripcion":"Depósito por transferencia externa","timestamp":"2025-08-11T12:30:45"}
+            """;
+
+    private final ObjectReader lectorCompartido = mapperConfigurado().readerFor(TransaccionesSolicitudDTO.class);
+    private final DecodificadorSolicitudJson decodificadorStreaming = new DecodificadorSolicitudJson(
+            mapperConfigurado().getFactory());
+
+    @Benchmark
+    public TransaccionesSolicitudDTO mapperPorMensaje() throws Exception {
+        return mapperConfigurado().readValue(MENSAJE, TransaccionesSolicitudDTO.class);
+    }
+
+    @Benchmark
+    public TransaccionesSolicitudDTO objectReaderCompartido() throws Exception {
+        return lectorCompartido.readValue(MENSAJE);
+    }
+
+    @Benchmark
+    public TransaccionesSolicitudDTO decodificadorStreaming() throws Exception {
+        return decodificadorStreaming.decodificar(MENSAJE);
+    }
+
+    private static ObjectMapper mapperConfigurado() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+}
@@ -0,0 +1,28 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Muestreo Zipf sobre [0, n): con exponente s > 0 unas pocas cuentas concentran
+// la mayor parte del tráfico (cuentas de nómina o comercios)
+public final class DistribucionZipf {
+
+    private final double[] acumulada;
+
+    public DistribucionZipf(int n, double exponente) {
+        acumulada = new double[n];
+        double suma = 0;
+        for (int i = 0; i < n; i++) {
+            suma += 1.0 / Math.pow(i + 1, exponente);
+            acumulada[i] = suma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= suma;
+        }
+    }
+
+    public int siguiente(SplittableRandom random) {
+        int indice = Arrays.binarySearch(acumulada, random.nextDouble());
+        return indice >= 0 ? indice : Math.min(-indice - 1, acumulada.length - 1);
+    }
+}
@@ -0,0 +1,317 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.consumer.TransaccionesConsumer;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.repository.CuentaClienteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Prueba de carga de extremo a extremo: levanta la aplicación con broker ActiveMQ
+// embebido y H2 (o PostgreSQL embebido), siembra cuentas y publica depósitos y retiros
+// en las colas reales a una tasa objetivo. Reporta throughput, latencia encolado->commit
+// (p50/p99/p999), errores y tiempo de espera del bloqueo de cuenta.
+//
+//   ./mvnw -Pbenchmark test-compile exec:java@carga -Dcarga.argumentos="tasa=500 duracion=30 sesgo=1.1"
+//
+// Parámetros clave=valor: cuentas, tasa (mensajes/s), duracion y calentamiento (s), sesgo
+// (exponente Zipf, 0 = uniforme), retiros (proporción 0..1), base-datos (H2|POSTGRES).
+// Cualquier otra propiedad con punto (p. ej. transacciones.carriles.habilitado=true) se
+// pasa a la aplicación
+public final class GeneradorCarga {
+
+    // Propiedad JMS con el instante planificado de envío (System.nanoTime). Se usa el
+    // instante planificado y no el real para no ocultar latencia si el generador se atrasa
+    private static final String PROPIEDAD_ENVIO = "cargaEnvioNanos";
+    private static final String PROPIEDAD_MEDIR = "cargaMedir";
+    private static final long ESPERA_DRENADO_MS = 60_000;
+
+    private final Map<String, String> parametros;
+    private final long[] latencias;
+    private final long[] esperasBloqueo;
+    private final AtomicInteger totalLatencias = new AtomicInteger();
+    private final AtomicInteger totalEsperasBloqueo = new AtomicInteger();
+    private final AtomicLong procesados = new AtomicLong();
+    private final AtomicLong erroresTecnicos = new AtomicLong();
+    private volatile boolean midiendo;
+
+    private GeneradorCarga(Map<String, String> parametros) {
+        this.parametros = parametros;
+        int capacidad = (int) Math.min(Integer.MAX_VALUE - 8,
+                (long) entero("tasa", 500) * (entero("duracion", 30) + 1));
+        this.latencias = new long[capacidad];
+        this.esperasBloqueo = new long[capacidad * 2];
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parametros = new HashMap<>();
+        List<String> propiedades = new ArrayList<>();
+        for (String arg : args) {
+            for (String par : arg.trim().split("\\s+")) {
+                if (par.isEmpty()) {
+                    continue;
+                }
+                String[] partes = par.split("=", 2);
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Argumento inválido (se espera clave=valor): " + par);
+                }
+                if (partes[0].contains(".")) {
+                    propiedades.add(par);
+                } else {
+                    parametros.put(partes[0], partes[1]);
+                }
+            }
+        }
+        new GeneradorCarga(parametros).ejecutar(propiedades.toArray(String[]::new));
+    }
+
+    private void ejecutar(String[] propiedades) throws Exception {
+        int cuentas = entero("cuentas", 1000);
+        int tasa = entero("tasa", 500);
+        int duracion = entero("duracion", 30);
+        int calentamiento = entero("calentamiento", 5);
+        double sesgo = Double.parseDouble(parametros.getOrDefault("sesgo", "0.0"));
+        double proporcionRetiros = Double.parseDouble(parametros.getOrDefault("retiros", "0.3"));
+        ContextoBenchmark.BaseDatos baseDatos = ContextoBenchmark.BaseDatos
+                .valueOf(parametros.getOrDefault("base-datos", "H2"));
+
+        ConfigurableApplicationContext contexto = ContextoBenchmark.iniciar(baseDatos,
+                ctx -> ctx.getBeanFactory().addBeanPostProcessor(instrumentacion()), propiedades);
+        try {
+            ContextoBenchmark.sembrarCuentas(contexto, cuentas, Dinero.parse("1000000.00"));
+            boolean conLatencia = !contexto.getBeansOfType(TransaccionesConsumer.class).isEmpty();
+
+            System.out.printf("Carga: cuentas=%d, tasa=%d msg/s, duración=%ds (+%ds calentamiento), sesgo=%.2f, "
+                    + "retiros=%.0f%%, base=%s, propiedades=%s%n", cuentas, tasa, duracion, calentamiento, sesgo,
+                    proporcionRetiros * 100, baseDatos, Arrays.toString(propiedades));
+
+            Environment entorno = contexto.getEnvironment();
+            ObjectMapper objectMapper = contexto.getBean(ObjectMapper.class);
+            DistribucionZipf distribucion = new DistribucionZipf(cuentas, sesgo);
+            SplittableRandom random = new SplittableRandom(42);
+
+            long medidosEnviados;
+            long inicioMedicion;
+            long finEnvio;
+            try (Connection connection = contexto.getBean(ConnectionFactory.class).createConnection();
+                    Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                    MessageProducer deposito = session.createProducer(
+                            session.createQueue(entorno.getRequiredProperty("colas.transacciones.deposito")));
+                    MessageProducer retiro = session.createProducer(
+                            session.createQueue(entorno.getRequiredProperty("colas.transacciones.retiro")))) {
+                deposito.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+                retiro.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+
+                publicar(session, deposito, retiro, objectMapper, distribucion, random, proporcionRetiros, tasa,
+                        calentamiento, false);
+                esperarDrenado(contexto, false);
+
+                midiendo = true;
+                procesados.set(0);
+                inicioMedicion = System.nanoTime();
+                medidosEnviados = publicar(session, deposito, retiro, objectMapper, distribucion, random,
+                        proporcionRetiros, tasa, duracion, true);
+                finEnvio = System.nanoTime();
+            }
+
+            boolean drenado = esperarDrenado(contexto, true);
+            long finMedicion = System.nanoTime();
+            midiendo = false;
+
+            reportar(contexto, conLatencia, drenado, medidosEnviados, inicioMedicion, finEnvio, finMedicion);
+        } finally {
+            contexto.close();
+        }
+    }
+
+    // Publica a tasa constante planificando cada envío en el tiempo, sin ráfagas de recuperación
+    private long publicar(Session session, MessageProducer deposito, MessageProducer retiro,
+            ObjectMapper objectMapper, DistribucionZipf distribucion, SplittableRandom random,
+            double proporcionRetiros, int tasa, int segundos, boolean medir) throws Exception {
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / tasa;
+        long total = (long) tasa * segundos;
+        long inicio = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long planificado = inicio + i * intervalo;
+            long espera = planificado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            boolean esRetiro = random.nextDouble() < proporcionRetiros;
+            TransaccionesSolicitudDTO dto = TransaccionesSolicitudDTO.builder()
+                    .numeroCuentaOrigen(ContextoBenchmark.numeroCuenta(distribucion.siguiente(random)))
+                    .tipoTransaccion(esRetiro ? "RETIRO" : "DEPOSITO")
+                    .monto(Dinero.parse("1.00"))
+                    .descripcion("carga")
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            TextMessage mensaje = session.createTextMessage(objectMapper.writeValueAsString(dto));
+            mensaje.setLongProperty(PROPIEDAD_ENVIO, planificado);
+            mensaje.setBooleanProperty(PROPIEDAD_MEDIR, medir);
+            (esRetiro ? retiro : deposito).send(mensaje);
+        }
+        return total;
+    }
+
+    // Espera a que las filas insertadas dejen de crecer, es decir, a que las colas se vacíen
+    private boolean esperarDrenado(ConfigurableApplicationContext contexto, boolean medir) throws InterruptedException {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        long limite = System.currentTimeMillis() + ESPERA_DRENADO_MS;
+        long anterior = -1;
+        int estables = 0;
+        while (System.currentTimeMillis() < limite) {
+            Long filas = jdbcTemplate.queryForObject("SELECT count(*) FROM account.transacciones", Long.class);
+            estables = filas != null && filas == anterior ? estables + 1 : 0;
+            if (estables >= 3) {
+                return true;
+            }
+            anterior = filas != null ? filas : -1;
+            Thread.sleep(medir ? 200 : 500);
+        }
+        return false;
+    }
+
+    private void reportar(ConfigurableApplicationContext contexto, boolean conLatencia, boolean drenado,
+            long enviados, long inicio, long finEnvio, long fin) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        List<Map<String, Object>> estados = jdbcTemplate.queryForList(
+                "SELECT estado, count(*) AS total FROM account.transacciones WHERE descripcion = 'carga' "
+                        + "GROUP BY estado");
+
+        double segundosEnvio = (finEnvio - inicio) / 1e9;
+        double segundosTotal = (fin - inicio) / 1e9;
+        System.out.println();
+        System.out.println("=== RESULTADO DE CARGA ===");
+        System.out.printf("Enviados (medición): %d en %.1fs (%.0f msg/s ofrecidos)%n", enviados, segundosEnvio,
+                enviados / segundosEnvio);
+        if (conLatencia) {
+            System.out.printf("Procesados: %d en %.1fs (%.0f msg/s)%n", procesados.get(), segundosTotal,
+                    procesados.get() / segundosTotal);
+            int n = Math.min(totalLatencias.get(), latencias.length);
+            long[] ordenadas = Arrays.copyOf(latencias, n);
+            Arrays.sort(ordenadas);
+            System.out.printf("Latencia encolado->commit (ms): p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    ms(percentil(ordenadas, 0.50)), ms(percentil(ordenadas, 0.99)), ms(percentil(ordenadas, 0.999)),
+                    ms(n > 0 ? ordenadas[n - 1] : 0));
+        } else {
+            System.out.println("Latencia no disponible: el modo configurado no usa TransaccionesConsumer");
+        }
+        System.out.printf("Filas por estado (incluye calentamiento): %s%n", estados);
+        System.out.printf("Errores técnicos en el listener: %d%s%n", erroresTecnicos.get(),
+                drenado ? "" : " (las colas no se vaciaron a tiempo)");
+
+        int m = Math.min(totalEsperasBloqueo.get(), esperasBloqueo.length);
+        long[] esperas = Arrays.copyOf(esperasBloqueo, m);
+        Arrays.sort(esperas);
+        long totalEspera = Arrays.stream(esperas).sum();
+        System.out.printf("Espera de bloqueo de cuenta: %d adquisiciones, total=%.1fms, p50=%.3fms p99=%.3fms max=%.3fms%n",
+                m, ms(totalEspera), ms(percentil(esperas, 0.50)), ms(percentil(esperas, 0.99)),
+                ms(m > 0 ? esperas[m - 1] : 0));
+    }
+
+    // Mide la latencia alrededor de los métodos @JmsListener (retornan después del commit) y
+    // el tiempo de findByNumeroCuentaWithLock (SELECT ... FOR UPDATE)
+    private BeanPostProcessor instrumentacion() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof TransaccionesConsumer) {
+                    ProxyFactory proxyFactory = new ProxyFactory(bean);
+                    proxyFactory.setProxyTargetClass(true);
+                    proxyFactory.addAdvice(medirListener());
+                    return proxyFactory.getProxy();
+                }
+                if (bean instanceof CuentaClienteRepository) {
+                    ProxyFactory proxyFactory = new ProxyFactory(bean);
+                    proxyFactory.addAdvice(medirBloqueo());
+                    return proxyFactory.getProxy();
+                }
+                return bean;
+            }
+        };
+    }
+
+    private MethodInterceptor medirListener() {
+        return invocacion -> {
+            if (invocacion.getArguments().length != 1 || !(invocacion.getArguments()[0] instanceof Message mensaje)) {
+                return invocacion.proceed();
+            }
+            try {
+                return invocacion.proceed();
+            } catch (Throwable e) {
+                erroresTecnicos.incrementAndGet();
+                throw e;
+            } finally {
+                long ahora = System.nanoTime();
+                procesados.incrementAndGet();
+                if (midiendo && mensaje.propertyExists(PROPIEDAD_MEDIR) && mensaje.getBooleanProperty(PROPIEDAD_MEDIR)) {
+                    registrar(latencias, totalLatencias, ahora - mensaje.getLongProperty(PROPIEDAD_ENVIO));
+                }
+            }
+        };
+    }
+
+    private MethodInterceptor medirBloqueo() {
+        return invocacion -> {
+            if (!"findByNumeroCuentaWithLock".equals(invocacion.getMethod().getName())) {
+                return invocacion.proceed();
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocacion.proceed();
+            } finally {
+                if (midiendo) {
+                    registrar(esperasBloqueo, totalEsperasBloqueo, System.nanoTime() - inicio);
+                }
+            }
+        };
+    }
+
+    private static void registrar(long[] muestras, AtomicInteger total, long valor) {
+        int indice = total.getAndIncrement();
+        if (indice < muestras.length) {
+            muestras[indice] = valor;
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private int entero(String clave, int porDefecto) {
+        return Integer.parseInt(parametros.getOrDefault(clave, String.valueOf(porDefecto)));
+    }
+}
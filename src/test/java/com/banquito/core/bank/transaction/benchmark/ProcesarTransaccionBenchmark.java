@@ -0,0 +1,74 @@
+package com.banquito.core.bank.transaction.benchmark;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.TransaccionesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latencia de TransaccionesService.procesar (INSERT + bloqueo + UPDATE + commit) con
+// H2 y con un PostgreSQL embebido como sustituto del RDS de producción
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcesarTransaccionBenchmark {
+
+    private static final int CUENTAS = 1000;
+
+    @Param({ "H2", "POSTGRES" })
+    ContextoBenchmark.BaseDatos baseDatos;
+
+    private ConfigurableApplicationContext contexto;
+    private TransaccionesService transaccionesService;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(baseDatos);
+        ContextoBenchmark.sembrarCuentas(contexto, CUENTAS, Dinero.parse("1000000.00"));
+        transaccionesService = contexto.getBean(TransaccionesService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Transacciones deposito() {
+        return transaccionesService.procesar(solicitud("DEPOSITO"));
+    }
+
+    @Benchmark
+    public Transacciones retiro() {
+        return transaccionesService.procesar(solicitud("RETIRO"));
+    }
+
+    private TransaccionesSolicitudDTO solicitud(String tipo) {
+        return TransaccionesSolicitudDTO.builder()
+                .numeroCuentaOrigen(ContextoBenchmark.numeroCuenta(random.nextInt(CUENTAS)))
+                .tipoTransaccion(tipo)
+                .monto(Dinero.parse("1.00"))
+                .descripcion("benchmark")
+                .build();
+    }
+}
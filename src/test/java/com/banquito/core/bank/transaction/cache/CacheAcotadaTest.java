@@ -0,0 +1,54 @@
+package com.banquito.core.bank.transaction.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheAcotadaTest {
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    @Test
+    void expulsaLaEntradaMenosUsadaRecientementeAlSuperarLaCapacidad() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(2, Duration.ofMinutes(1), 1, reloj::get);
+        cache.poner("a", 1);
+        cache.poner("b", 2);
+        cache.obtener("a");
+        cache.poner("c", 3);
+
+        assertEquals(1, cache.obtener("a"));
+        assertNull(cache.obtener("b"));
+        assertEquals(3, cache.obtener("c"));
+        assertEquals(1, cache.expulsiones());
+    }
+
+    @Test
+    void lasEntradasVencenAlCumplirSuTtl() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10, Duration.ofSeconds(10), 4, reloj::get);
+        cache.poner("a", 1);
+        cache.poner("b", 2, Duration.ofSeconds(60));
+
+        reloj.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertNull(cache.obtener("a"));
+        assertEquals(2, cache.obtener("b"));
+        assertEquals(1, cache.expiradas());
+        assertEquals(1, cache.tamano());
+    }
+
+    @Test
+    void ponerSiAusenteConservaElValorVigente() {
+        CacheAcotada<String, Integer> cache = new CacheAcotada<>(10, Duration.ofSeconds(10), 4, reloj::get);
+
+        assertNull(cache.ponerSiAusente("a", 1));
+        assertEquals(1, cache.ponerSiAusente("a", 2));
+
+        reloj.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertNull(cache.ponerSiAusente("a", 3));
+        assertEquals(3, cache.obtener("a"));
+    }
+}
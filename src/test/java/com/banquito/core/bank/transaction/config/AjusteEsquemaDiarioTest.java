@@ -0,0 +1,73 @@
+package com.banquito.core.bank.transaction.config;
+
+import com.banquito.core.bank.transaction.PostgresEmbebido;
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.service.TransaccionesLoteService;
+import com.banquito.core.bank.transaction.service.TransaccionesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Base ya desplegada: account.transacciones tal como la creó ddl-auto antes de TRANSFERENCIA,
+// con el CHECK de tipo_transaccion limitado a DEPOSITO y RETIRO
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=update")
+class AjusteEsquemaDiarioTest extends PruebaIntegracion {
+
+    @DynamicPropertySource
+    static void baseDatos(DynamicPropertyRegistry registro) {
+        PostgresEmbebido.registrar(registro, """
+                CREATE TABLE account.transacciones (
+                    id_transaccion bigint GENERATED BY DEFAULT AS IDENTITY,
+                    descripcion varchar(150),
+                    estado varchar(15) NOT NULL CHECK (estado IN ('PENDIENTE', 'COMPLETADA', 'ERROR')),
+                    fecha_transaccion timestamp(6) with time zone NOT NULL,
+                    monto numeric(15, 2) NOT NULL,
+                    numero_cuenta_destino varchar(10),
+                    numero_cuenta_origen varchar(10) NOT NULL,
+                    tipo_transaccion varchar(20) NOT NULL CHECK (tipo_transaccion IN ('DEPOSITO', 'RETIRO')),
+                    version bigint NOT NULL,
+                    PRIMARY KEY (id_transaccion)
+                )
+                """);
+    }
+
+    @Autowired
+    private TransaccionesService transaccionesService;
+
+    @Autowired
+    private TransaccionesLoteService transaccionesLoteService;
+
+    @Test
+    void transferenciasSeRegistranSobreLaTablaHeredada() {
+        String origen = crearCuenta(Dinero.parse("100.00"));
+        String destino = crearCuenta(Dinero.parse("100.00"));
+
+        Transacciones individual = transaccionesService.procesar(
+                solicitud("TRANSFERENCIA", origen, destino, "30.00"));
+        List<Transacciones> lote = transaccionesLoteService.procesarLote(
+                List.of(solicitud("TRANSFERENCIA", destino, origen, "10.00")));
+
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, individual.getEstado());
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, lote.get(0).getEstado());
+        assertEquals(Dinero.parse("80.00"), saldo(origen));
+        assertEquals(Dinero.parse("120.00"), saldo(destino));
+    }
+
+    // JPA no declara índices parciales: lo crea el ajuste del arranque
+    @Test
+    void creaElIndiceParcialDeSaldoPendiente() {
+        assertEquals(List.of("CREATE INDEX idx_transacciones_saldo_pendiente ON account.transacciones "
+                + "USING btree (numero_cuenta_origen) WHERE saldo_pendiente"),
+                jdbcTemplate.queryForList("SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                        + "WHERE i.indexrelid = 'account.idx_transacciones_saldo_pendiente'::regclass AND i.indisvalid",
+                        String.class));
+    }
+}
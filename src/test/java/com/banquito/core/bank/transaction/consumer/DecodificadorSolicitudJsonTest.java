@@ -0,0 +1,50 @@
+package com.banquito.core.bank.transaction.consumer;
+
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecodificadorSolicitudJsonTest {
+
+    private final DecodificadorSolicitudJson decodificador = new DecodificadorSolicitudJson(new JsonFactory());
+
+    @Test
+    void decodificaLosMismosCamposQueDatabind() throws Exception {
+        String json = """
+                {"numeroCuentaOrigen":"1234567890","numeroCuentaDestino":null,"tipoTransaccion":"DEPOSITO",
+                 "monto":150.50,"descripcion":"Depósito","timestamp":"2025-08-11T12:30:45",
+                 "campoDesconocido":{"anidado":[1,2,3]}}
+                """;
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        assertEquals(objectMapper.readValue(json, TransaccionesSolicitudDTO.class), decodificador.decodificar(json));
+    }
+
+    @Test
+    void aceptaMontoComoTextoYTimestampComoArreglo() throws Exception {
+        TransaccionesSolicitudDTO dto = decodificador.decodificar(
+                "{\"monto\":\"10.25\",\"timestamp\":[2025,1,1,10,0,5,500]}");
+
+        assertEquals(Dinero.deCentavos(1025), dto.getMonto());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0, 5, 500), dto.getTimestamp());
+        assertNull(dto.getNumeroCuentaOrigen());
+    }
+
+    @Test
+    void rechazaJsonQueNoEsObjeto() {
+        assertThrows(JsonParseException.class, () -> decodificador.decodificar("[1,2]"));
+    }
+}
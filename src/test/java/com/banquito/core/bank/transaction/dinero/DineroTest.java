@@ -0,0 +1,48 @@
+package com.banquito.core.bank.transaction.dinero;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DineroTest {
+
+    @Test
+    void parseaTextoDecimalACentavos() {
+        assertEquals(15050, Dinero.parse("150.5").centavos());
+        assertEquals(-7, Dinero.parse("-0.07").centavos());
+        assertEquals(300, Dinero.parse("3").centavos());
+        assertEquals(1025, Dinero.parse("10.250").centavos());
+        assertEquals(10000, Dinero.parse("1E+2").centavos());
+        assertEquals(Dinero.de(new BigDecimal("9999999999999.99")), Dinero.parse("9999999999999.99"));
+
+        assertThrows(NumberFormatException.class, () -> Dinero.parse("10.255"));
+        assertThrows(NumberFormatException.class, () -> Dinero.parse("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> Dinero.parse("-"));
+        assertThrows(NumberFormatException.class, () -> Dinero.parse("99999999999999999"));
+    }
+
+    @Test
+    void aritmeticaFallaAntesQueDesbordar() {
+        Dinero saldo = Dinero.parse("100.00");
+
+        assertEquals(Dinero.parse("250.50"), saldo.sumar(Dinero.parse("150.50")));
+        assertEquals("-50.50", saldo.restar(Dinero.parse("150.50")).toString());
+        assertEquals("0.00", Dinero.CERO.toString());
+        assertThrows(ArithmeticException.class, () -> Dinero.deCentavos(Long.MAX_VALUE).sumar(Dinero.deCentavos(1)));
+    }
+
+    @Test
+    void serializaComoNumeroConDosDecimales() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertEquals("150.50", objectMapper.writeValueAsString(Dinero.parse("150.5")));
+        assertEquals(Dinero.deCentavos(1025), objectMapper.readValue("\"10.25\"", Dinero.class));
+        assertEquals(Dinero.deCentavos(1025), objectMapper.readValue("10.25", Dinero.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("10.255", Dinero.class));
+    }
+}
@@ -0,0 +1,94 @@
+package com.banquito.core.bank.transaction.executor;
+
+import com.banquito.core.bank.transaction.model.Transacciones.TipoTransaccionEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlanificadorJustoBDTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Un solo permiso: los turnos se atienden de uno en uno y el orden es observable
+    private final PlanificadorJustoBD planificador = new PlanificadorJustoBD(1, 1, 3, 2, registry);
+    private final List<String> atendidos = Collections.synchronizedList(new ArrayList<>());
+    private final List<Thread> hilos = new ArrayList<>();
+
+    @Test
+    void repartePermisosSegunPeso() throws Exception {
+        CountDownLatch liberar = ocuparPermiso();
+        for (int i = 0; i < 4; i++) {
+            encolar(TipoTransaccionEnum.DEPOSITO, 4, "D");
+        }
+        for (int i = 0; i < 4; i++) {
+            encolar(TipoTransaccionEnum.RETIRO, 4, "R");
+        }
+
+        liberar.countDown();
+        esperarHilos();
+
+        // Ambos tipos parten de la misma pasada (empate a favor del primero del enum); después
+        // cada depósito avanza la pasada 1 y cada retiro 1/3
+        assertEquals(List.of("D", "R", "R", "R", "D", "R", "D", "D"), atendidos);
+    }
+
+    @Test
+    void dentroDelTipoAtiendePrimeroLaMayorPrioridad() throws Exception {
+        CountDownLatch liberar = ocuparPermiso();
+        encolar(TipoTransaccionEnum.DEPOSITO, 4, "normal-1");
+        encolar(TipoTransaccionEnum.DEPOSITO, 4, "normal-2");
+        encolar(TipoTransaccionEnum.DEPOSITO, 9, "urgente");
+
+        liberar.countDown();
+        esperarHilos();
+
+        assertEquals(List.of("urgente", "normal-1", "normal-2"), atendidos);
+        assertEquals(0.0, cola(TipoTransaccionEnum.DEPOSITO));
+    }
+
+    private CountDownLatch ocuparPermiso() throws InterruptedException {
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        iniciar(() -> planificador.ejecutar(TipoTransaccionEnum.TRANSFERENCIA, 4, () -> {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        ocupado.await();
+        return liberar;
+    }
+
+    // Espera a que el turno quede en cola para que el orden de llegada sea determinista
+    private void encolar(TipoTransaccionEnum tipo, int prioridad, String etiqueta) throws InterruptedException {
+        double esperados = cola(tipo) + 1;
+        iniciar(() -> planificador.ejecutar(tipo, prioridad, () -> atendidos.add(etiqueta)));
+        while (cola(tipo) < esperados) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void iniciar(Runnable tarea) {
+        Thread hilo = new Thread(tarea);
+        hilo.start();
+        hilos.add(hilo);
+    }
+
+    private void esperarHilos() throws InterruptedException {
+        for (Thread hilo : hilos) {
+            hilo.join(5000);
+        }
+    }
+
+    private double cola(TipoTransaccionEnum tipo) {
+        return registry.get("transacciones.planificador.cola").tag("clase", tipo.name()).gauge().value();
+    }
+}
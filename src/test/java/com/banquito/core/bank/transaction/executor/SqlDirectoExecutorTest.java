@@ -0,0 +1,131 @@
+package com.banquito.core.bank.transaction.executor;
+
+import com.banquito.core.bank.transaction.PostgresEmbebido;
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.exception.CuentaNoEncontradaException;
+import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
+import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// La sentencia CTE solo corre en PostgreSQL: se usa el embebido. Relevo detenido: los eventos
+// de la bandeja quedan para revisarlos
+@TestPropertySource(properties = {
+        "transacciones.sql-directo.habilitado=true",
+        "transacciones.bandeja-salida.habilitado=true",
+        "transacciones.bandeja-salida.intervalo-ms=3600000"
+})
+class SqlDirectoExecutorTest extends PruebaIntegracion {
+
+    @DynamicPropertySource
+    static void baseDatos(DynamicPropertyRegistry registro) {
+        PostgresEmbebido.registrar(registro);
+    }
+
+    @Autowired
+    private SqlDirectoExecutor executor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void aplicaDepositosYRetiros() {
+        String cuenta = crearCuenta(Dinero.parse("100.00"));
+        Transacciones deposito = executor.ejecutar(solicitud("DEPOSITO", cuenta, "20.50"));
+        Transacciones retiro = executor.ejecutar(solicitud("RETIRO", cuenta, "120.50"));
+
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, deposito.getEstado());
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, retiro.getEstado());
+        assertEquals(Dinero.CERO, saldo(cuenta));
+        assertEquals("COMPLETADA", estadoEvento(retiro.getId()));
+    }
+
+    @Test
+    void registraErroresDeNegocio() {
+        String inexistente = "9999999999";
+        String bloqueada = crearCuenta(Dinero.parse("100.00"));
+        String conFondos = crearCuenta(Dinero.parse("100.00"));
+        cambiarEstado(bloqueada, CuentaCliente.EstadoCuentaClienteEnum.BLOQUEADO);
+
+        assertThrows(CuentaNoEncontradaException.class,
+                () -> executor.ejecutar(solicitud("DEPOSITO", inexistente, "1.00")));
+        assertThrows(TransaccionException.class, () -> executor.ejecutar(solicitud("DEPOSITO", bloqueada, "1.00")));
+        assertThrows(SaldoInsuficienteException.class,
+                () -> executor.ejecutar(solicitud("RETIRO", conFondos, "100.01")));
+
+        assertEquals(Dinero.parse("100.00"), saldo(bloqueada));
+        assertEquals(Dinero.parse("100.00"), saldo(conFondos));
+        // Cada rechazo deja su fila ERROR y su evento en la misma sentencia
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM account.transacciones t "
+                + "JOIN account.eventos_resultado e ON e.id_transaccion = t.id_transaccion "
+                + "WHERE t.estado = 'ERROR' AND e.estado = 'ERROR' AND t.numero_cuenta_origen IN (?, ?, ?)",
+                Integer.class, inexistente, bloqueada, conFondos));
+    }
+
+    @Test
+    void claveRepetidaRevierteLaSentenciaCompleta() {
+        String cuenta = crearCuenta(Dinero.parse("100.00"));
+        TransaccionesSolicitudDTO deposito = solicitud("DEPOSITO", cuenta, "5.00");
+        executor.ejecutar(deposito);
+        Dinero saldo = saldo(cuenta);
+
+        assertThrows(DataIntegrityViolationException.class, () -> executor.ejecutar(deposito));
+        assertEquals(saldo, saldo(cuenta));
+    }
+
+    // El UPDATE espera el bloqueo de la fila y reevalúa el WHERE con la versión confirmada; el
+    // motivo del rechazo debe salir de esa versión y no de la foto del inicio de la sentencia
+    @Test
+    void clasificaElRechazoConElEstadoPosteriorAlBloqueo() throws Exception {
+        String cuenta = crearCuenta(Dinero.parse("100.00"));
+        CompletableFuture<Transacciones> retiro;
+        try (Connection bloqueo = dataSource.getConnection()) {
+            bloqueo.setAutoCommit(false);
+            bloqueo.createStatement().executeUpdate(
+                    "UPDATE account.cuentas_clientes SET estado = 'INACTIVO' WHERE numero_cuenta = '" + cuenta + "'");
+            retiro = CompletableFuture.supplyAsync(() -> executor.ejecutar(solicitud("RETIRO", cuenta, "10.00")));
+            esperarBloqueo();
+            bloqueo.commit();
+        }
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> retiro.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(TransaccionException.class, error.getCause());
+        assertEquals(Dinero.parse("100.00"), saldo(cuenta));
+    }
+
+    private void esperarBloqueo() throws InterruptedException {
+        for (int intento = 0; intento < 100; intento++) {
+            Integer esperando = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE datname = current_database() "
+                            + "AND wait_event_type = 'Lock'", Integer.class);
+            if (esperando != null && esperando > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("La sentencia no llegó a esperar el bloqueo de la cuenta");
+    }
+
+    private String estadoEvento(long transaccionId) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM account.eventos_resultado WHERE id_transaccion = ?",
+                String.class, transaccionId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.banquito.core.bank.transaction.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneradorIdTemporalTest {
+
+    private final AtomicLong reloj = new AtomicLong(GeneradorIdTemporal.EPOCA + 86_400_000L);
+
+    @Test
+    void elIdLlevaElInstanteYElNodoDeCreacion() {
+        GeneradorIdTemporal generador = new GeneradorIdTemporal(37, reloj::get);
+
+        long id = generador.siguiente();
+
+        assertEquals(Instant.ofEpochMilli(reloj.get()), GeneradorIdTemporal.instanteDe(id));
+        assertEquals(37, GeneradorIdTemporal.nodoDe(id));
+        assertTrue(GeneradorIdTemporal.esTemporal(id));
+    }
+
+    @Test
+    void agotarLaSecuenciaPasaAlMilisegundoSiguienteSinRepetir() {
+        GeneradorIdTemporal generador = new GeneradorIdTemporal(1, reloj::get);
+
+        long anterior = generador.siguiente();
+        for (int i = 1; i < 4096; i++) {
+            long id = generador.siguiente();
+            assertTrue(id > anterior);
+            anterior = id;
+        }
+        long desbordado = generador.siguiente();
+
+        assertTrue(desbordado > anterior);
+        assertEquals(Instant.ofEpochMilli(reloj.get() + 1), GeneradorIdTemporal.instanteDe(desbordado));
+    }
+
+    @Test
+    void unRelojQueRetrocedeNoGeneraIdsMenores() {
+        GeneradorIdTemporal generador = new GeneradorIdTemporal(1, reloj::get);
+        long antes = generador.siguiente();
+
+        reloj.addAndGet(-5_000);
+        long despues = generador.siguiente();
+
+        assertTrue(despues > antes);
+        assertEquals(GeneradorIdTemporal.instanteDe(antes), GeneradorIdTemporal.instanteDe(despues));
+    }
+}
@@ -0,0 +1,83 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Escritura diferida sobre H2: el saldo de la fila solo se pone al día en el ciclo, así que
+// los retiros deben contar los depósitos pendientes del diario. Ciclo y umbral fuera de
+// alcance: nada se aplica salvo lo que haga cada prueba
+@TestPropertySource(properties = {
+        "transacciones.escritura-diferida.habilitado=true",
+        "transacciones.escritura-diferida.cuentas-calientes=9000000000,9000000001,9000000002",
+        "transacciones.escritura-diferida.intervalo-ms=3600000",
+        "transacciones.escritura-diferida.umbral-delta=1000000.00"
+})
+class EscrituraDiferidaSaldosTest extends PruebaIntegracion {
+
+    @Autowired
+    private TransaccionesService transaccionesService;
+
+    @Autowired
+    private TransaccionesLoteService transaccionesLoteService;
+
+    @Autowired
+    private EscrituraDiferidaSaldos escrituraDiferida;
+
+    @Autowired
+    private TransaccionesRepository transaccionesRepository;
+
+    @Test
+    void retiroCuentaLosDepositosPendientes() {
+        String cuenta = crearCuenta("9000000000", Dinero.parse("10.00"));
+        transaccionesService.procesar(solicitud("DEPOSITO", cuenta, "50.00"));
+        assertEquals(Dinero.parse("10.00"), saldo(cuenta));
+
+        Transacciones retiro = transaccionesService.procesar(solicitud("RETIRO", cuenta, "40.00"));
+
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, retiro.getEstado());
+        assertEquals(Dinero.parse("20.00"), saldo(cuenta));
+        assertFalse(transaccionesRepository.findCuentasConSaldoPendiente().contains(cuenta));
+
+        // El ciclo posterior no vuelve a sumar lo ya incorporado
+        escrituraDiferida.aplicarAcumulados();
+        assertEquals(Dinero.parse("20.00"), saldo(cuenta));
+    }
+
+    @Test
+    void loteCuentaLosDepositosPendientes() {
+        String cuenta = crearCuenta("9000000001", Dinero.parse("10.00"));
+        transaccionesService.procesar(solicitud("DEPOSITO", cuenta, "50.00"));
+
+        List<Transacciones> resultado = transaccionesLoteService.procesarLote(
+                List.of(solicitud("RETIRO", cuenta, "40.00")));
+
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, resultado.get(0).getEstado());
+        assertEquals(Dinero.parse("20.00"), saldo(cuenta));
+        assertFalse(transaccionesRepository.findCuentasConSaldoPendiente().contains(cuenta));
+    }
+
+    @Test
+    void recuperaLosPendientesDelDiario() {
+        String cuenta = crearCuenta("9000000002", Dinero.parse("10.00"));
+        transaccionesService.procesar(solicitud("DEPOSITO", cuenta, "25.00"));
+        transaccionesService.procesar(solicitud("DEPOSITO", cuenta, "5.50"));
+        assertTrue(transaccionesRepository.findCuentasConSaldoPendiente().contains(cuenta));
+
+        // Lo mismo que hace el arranque tras una caída con filas saldo_pendiente
+        escrituraDiferida.recuperarPendientes();
+
+        assertEquals(Dinero.parse("40.50"), saldo(cuenta));
+        assertFalse(transaccionesRepository.findCuentasConSaldoPendiente().contains(cuenta));
+    }
+}
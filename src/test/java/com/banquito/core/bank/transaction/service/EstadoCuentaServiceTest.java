@@ -0,0 +1,60 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Páginas de dos filas para que el intercalado de origen y destino cruce varias páginas
+@TestPropertySource(properties = "transacciones.estado-cuenta.tamano-pagina=2")
+class EstadoCuentaServiceTest extends PruebaIntegracion {
+
+    @Autowired
+    private TransaccionesService transaccionesService;
+
+    @Autowired
+    private EstadoCuentaService estadoCuentaService;
+
+    @Test
+    void incluyeLasTransferenciasRecibidasConSuSentido() throws Exception {
+        String cuenta = crearCuenta(Dinero.parse("100.00"));
+        String otra = crearCuenta(Dinero.parse("100.00"));
+
+        transaccionesService.procesar(solicitud("DEPOSITO", cuenta, "10.00"));
+        transaccionesService.procesar(solicitud("TRANSFERENCIA", otra, cuenta, "20.00"));
+        transaccionesService.procesar(solicitud("TRANSFERENCIA", cuenta, otra, "30.00"));
+        transaccionesService.procesar(solicitud("TRANSFERENCIA", otra, cuenta, "40.00"));
+        transaccionesService.procesar(solicitud("RETIRO", cuenta, "5.00"));
+        // Una transferencia rechazada no es un crédito para la destino
+        assertThrows(SaldoInsuficienteException.class,
+                () -> transaccionesService.procesar(solicitud("TRANSFERENCIA", otra, cuenta, "999.00")));
+
+        LocalDate hoy = LocalDate.now(ZoneOffset.UTC);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        estadoCuentaService.escribir(cuenta, hoy.minusDays(1), hoy.plusDays(1), EstadoCuentaService.Formato.CSV,
+                salida);
+
+        List<String> filas = Arrays.stream(salida.toString(StandardCharsets.UTF_8).split("\n"))
+                .skip(1)
+                .map(fila -> String.join(",", Arrays.asList(fila.split(",", -1)).subList(2, 5)))
+                .toList();
+        assertEquals(List.of(
+                "DEPOSITO,CREDITO,10.00",
+                "TRANSFERENCIA,CREDITO,20.00",
+                "TRANSFERENCIA,DEBITO,30.00",
+                "TRANSFERENCIA,CREDITO,40.00",
+                "RETIRO,DEBITO,5.00"), filas);
+    }
+}
@@ -0,0 +1,59 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import com.banquito.core.bank.transaction.model.Transacciones.EstadoTransaccionesEnum;
+import com.banquito.core.bank.transaction.repository.TransaccionesRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TransaccionesLoteServiceTest extends PruebaIntegracion {
+
+    @Autowired
+    private TransaccionesLoteService transaccionesLoteService;
+
+    @Autowired
+    private TransaccionesRepository transaccionesRepository;
+
+    // Los errores de negocio quedan como ERROR en el diario sin revertir el resto del lote
+    @Test
+    void erroresDeNegocioNoAbortanElLote() {
+        String a = crearCuenta(Dinero.parse("100.00"));
+        String b = crearCuenta(Dinero.parse("100.00"));
+        String inactiva = crearCuenta(Dinero.parse("100.00"));
+        cambiarEstado(inactiva, CuentaCliente.EstadoCuentaClienteEnum.INACTIVO);
+
+        List<Transacciones> resultado = transaccionesLoteService.procesarLote(List.of(
+                solicitud("DEPOSITO", a, "25.00"),
+                solicitud("RETIRO", b, "500.00"),
+                solicitud("RETIRO", "9999999999", "1.00"),
+                solicitud("TRANSFERENCIA", a, b, "75.00"),
+                solicitud("TRANSFERENCIA", a, a, "1.00"),
+                solicitud("DEPOSITO", inactiva, "1.00"),
+                solicitud("TRANSFERENCIA", b, inactiva, "1.00"),
+                // Solo alcanza con la transferencia anterior del mismo lote
+                solicitud("RETIRO", b, "170.00")));
+
+        assertEquals(List.of(EstadoTransaccionesEnum.COMPLETADA, EstadoTransaccionesEnum.ERROR,
+                EstadoTransaccionesEnum.ERROR, EstadoTransaccionesEnum.COMPLETADA, EstadoTransaccionesEnum.ERROR,
+                EstadoTransaccionesEnum.ERROR, EstadoTransaccionesEnum.ERROR, EstadoTransaccionesEnum.COMPLETADA),
+                resultado.stream().map(Transacciones::getEstado).toList());
+        assertEquals(Dinero.parse("50.00"), saldo(a));
+        assertEquals(Dinero.parse("5.00"), saldo(b));
+        assertEquals(Dinero.parse("100.00"), saldo(inactiva));
+
+        // Todo el lote quedó en el diario, con la fecha en la precisión de la columna
+        for (Transacciones transaccion : resultado) {
+            Transacciones guardada = transaccionesRepository.findById(transaccion.getId()).orElseThrow();
+            assertEquals(transaccion.getEstado(), guardada.getEstado());
+            assertEquals(transaccion.getFechaTransaccion(), guardada.getFechaTransaccion());
+            assertEquals(0, transaccion.getFechaTransaccion().getNano() % 1_000);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.banquito.core.bank.transaction.service;
+
+import com.banquito.core.bank.transaction.PruebaIntegracion;
+import com.banquito.core.bank.transaction.dinero.Dinero;
+import com.banquito.core.bank.transaction.dto.TransaccionesSolicitudDTO;
+import com.banquito.core.bank.transaction.exception.SaldoInsuficienteException;
+import com.banquito.core.bank.transaction.exception.TransaccionException;
+import com.banquito.core.bank.transaction.model.CuentaCliente;
+import com.banquito.core.bank.transaction.model.Transacciones;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransferenciaServiceTest extends PruebaIntegracion {
+
+    @Autowired
+    private TransaccionesService transaccionesService;
+
+    @Test
+    void debitoYCreditoEnUnSoloCommit() {
+        String origen = crearCuenta(Dinero.parse("100.00"));
+        String destino = crearCuenta(Dinero.parse("100.00"));
+
+        Transacciones resultado = transaccionesService.procesar(solicitud("TRANSFERENCIA", origen, destino, "40.00"));
+
+        assertEquals(Transacciones.EstadoTransaccionesEnum.COMPLETADA, resultado.getEstado());
+        assertEquals(Dinero.parse("60.00"), saldo(origen));
+        assertEquals(Dinero.parse("140.00"), saldo(destino));
+    }
+
+    // El registro ERROR se confirma (noRollbackFor) y ninguna de las dos cuentas cambia
+    @Test
+    void saldoInsuficienteDejaErrorSinMoverSaldos() {
+        String origen = crearCuenta(Dinero.parse("100.00"));
+        String destino = crearCuenta(Dinero.parse("100.00"));
+        TransaccionesSolicitudDTO dto = solicitud("TRANSFERENCIA", origen, destino, "100.01");
+
+        assertThrows(SaldoInsuficienteException.class, () -> transaccionesService.procesar(dto));
+
+        assertEquals("ERROR", estadoRegistrado(dto));
+        assertEquals(Dinero.parse("100.00"), saldo(origen));
+        assertEquals(Dinero.parse("100.00"), saldo(destino));
+    }
+
+    @Test
+    void destinoInactivoSeRechaza() {
+        String origen = crearCuenta(Dinero.parse("100.00"));
+        String destino = crearCuenta(Dinero.parse("100.00"));
+        cambiarEstado(destino, CuentaCliente.EstadoCuentaClienteEnum.INACTIVO);
+        TransaccionesSolicitudDTO dto = solicitud("TRANSFERENCIA", origen, destino, "1.00");
+
+        assertThrows(TransaccionException.class, () -> transaccionesService.procesar(dto));
+
+        assertEquals("ERROR", estadoRegistrado(dto));
+        assertEquals(Dinero.parse("100.00"), saldo(origen));
+    }
+
+    // Transferencias opuestas entre las mismas cuentas: ambas bloquean en orden de número de
+    // cuenta, así que terminan todas sin interbloqueo y el total se conserva
+    @Test
+    void transferenciasOpuestasNoSeInterbloquean() throws Exception {
+        String a = crearCuenta(Dinero.parse("100.00"));
+        String b = crearCuenta(Dinero.parse("100.00"));
+        int iteraciones = 50;
+
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int hilo = 0; hilo < 4; hilo++) {
+                boolean haciaB = hilo % 2 == 0;
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 0; i < iteraciones; i++) {
+                        transaccionesService.procesar(haciaB ? solicitud("TRANSFERENCIA", a, b, "1.00")
+                                : solicitud("TRANSFERENCIA", b, a, "1.00"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        // Mismo número de transferencias en cada sentido
+        assertEquals(Dinero.parse("100.00"), saldo(a));
+        assertEquals(Dinero.parse("100.00"), saldo(b));
+    }
+}